@@ -0,0 +1,68 @@
+/*
+  Copyright (C) 2012-2013 the original author or authors.
+
+  See the LICENSE.txt file distributed with this work for additional
+  information regarding copyright ownership.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package scalaopts.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import scalaopts.ParseResults;
+import scalaopts.Parser;
+import scalaopts.common.platform.Terminal$;
+import scalaopts.java.Translate;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What a short-lived program does when run with "--help": builds its specification, parses and prints
+ * usage at the terminal's width. Measured once per freshly started JVM, so class loading and static
+ * initialization are included. Run with "-prof cl" to count the classes loaded.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+@State(Scope.Benchmark)
+public class ColdStartBenchmark {
+  private PrintStream out;
+
+  @Setup
+  public void setup() {
+    out = new PrintStream(new OutputStream() {
+      @Override
+      public void write(int b) {
+      }
+
+      @Override
+      public void write(byte[] b, int off, int len) {
+      }
+    });
+  }
+
+  @Benchmark
+  public ParseResults help() {
+    final Parser parser = Specifications.optionSet(10);
+    final ParseResults results = parser.parseArguments(Translate.asStringSeq(new String[] { "--help" }));
+    if (results.anyInvalidOptions()) {
+      parser.showUsage("app", out, (int) Terminal$.MODULE$.queryTerminalDimensions().Width);
+    }
+    return results;
+  }
+}
@@ -0,0 +1,60 @@
+/*
+  Copyright (C) 2012-2013 the original author or authors.
+
+  See the LICENSE.txt file distributed with this work for additional
+  information regarding copyright ownership.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package scalaopts.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import scala.collection.IndexedSeq;
+import scalaopts.CompiledSpecification;
+import scalaopts.ParseResults;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses against specifications of thousands of interdependent flags, where validating required options
+ * and dependencies after parsing is a large part of the work. every = 1 passes every flag (nothing is
+ * missing); every = 2 passes every other flag so most of them are missing dependencies.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DependencyValidationBenchmark {
+  @Param({"1000", "5000"})
+  public int options;
+
+  @Param({"1", "2"})
+  public int every;
+
+  private CompiledSpecification specification;
+  private IndexedSeq<String> arguments;
+
+  @Setup
+  public void setup() {
+    specification = Specifications.dependencyGraph(options).compile();
+    arguments = Specifications.dependencyGraphArguments(options, every);
+  }
+
+  @Benchmark
+  public ParseResults parse() {
+    return specification.parseArguments(arguments);
+  }
+}
@@ -0,0 +1,58 @@
+/*
+  Copyright (C) 2012-2013 the original author or authors.
+
+  See the LICENSE.txt file distributed with this work for additional
+  information regarding copyright ownership.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package scalaopts.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import scala.collection.IndexedSeq;
+import scalaopts.CompiledSpecification;
+import scalaopts.ParseResults;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses bundled short flags such as "-abcdef".
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FlagBundleBenchmark {
+  @Param({"6", "26"})
+  public int flags;
+
+  @Param({"1", "16"})
+  public int bundles;
+
+  private CompiledSpecification specification;
+  private IndexedSeq<String> arguments;
+
+  @Setup
+  public void setup() {
+    specification = Specifications.flagBundle(flags).compile();
+    arguments = Specifications.flagBundleArguments(flags, bundles);
+  }
+
+  @Benchmark
+  public ParseResults parse() {
+    return specification.parseArguments(arguments);
+  }
+}
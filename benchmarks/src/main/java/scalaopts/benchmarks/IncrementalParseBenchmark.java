@@ -0,0 +1,69 @@
+/*
+  Copyright (C) 2012-2013 the original author or authors.
+
+  See the LICENSE.txt file distributed with this work for additional
+  information regarding copyright ownership.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package scalaopts.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import scala.collection.IndexedSeq;
+import scalaopts.CommandLineOptionIndex;
+import scalaopts.CompiledSpecification;
+import scalaopts.strategy.GNUParseState;
+import scalaopts.strategy.GNUParserStrategy;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The work needed to take one more argument into account, as a completion engine would on every
+ * keystroke: re-parsing the whole command line versus feeding the argument to the state checkpointed
+ * after the previous one. Re-parsing grows with the length of the command line; resuming shouldn't.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IncrementalParseBenchmark {
+  @Param({"10", "1000", "100000"})
+  public int count;
+
+  private GNUParserStrategy strategy;
+  private CommandLineOptionIndex options;
+  private IndexedSeq<String> arguments;
+  private GNUParseState checkpoint;
+
+  @Setup
+  public void setup() {
+    CompiledSpecification specification = Specifications.unbounded().compile();
+    strategy = (GNUParserStrategy)specification.configuration().strategy();
+    options = specification.options();
+    arguments = Specifications.unboundedArguments(count);
+    checkpoint = strategy.begin(options, specification.configuration()).feedAll((IndexedSeq<String>)arguments.take(count - 1));
+  }
+
+  @Benchmark
+  public Object reparse() {
+    return strategy.processOptions(arguments, options);
+  }
+
+  @Benchmark
+  public Object resume() {
+    return checkpoint.feed(arguments.last()).expected();
+  }
+}
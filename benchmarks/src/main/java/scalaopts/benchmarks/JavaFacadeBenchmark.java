@@ -0,0 +1,126 @@
+/*
+  Copyright (C) 2012-2013 the original author or authors.
+
+  See the LICENSE.txt file distributed with this work for additional
+  information regarding copyright ownership.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package scalaopts.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import scalaopts.DefaultFlagOption$;
+import scalaopts.DefaultIntegerOption$;
+import scalaopts.java.CommandLineOption;
+import scalaopts.java.CommandLineOptions;
+import scalaopts.java.ICommandLineOption;
+import scalaopts.java.IParseResults;
+import scalaopts.java.IParser;
+import scalaopts.java.IOptionTransform;
+import scalaopts.java.Translate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds and parses through the Java facade (scalaopts.java.CommandLineOptions). The scala* benchmarks
+ * parse the same specification through the Scala API for comparison.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+@SuppressWarnings("unchecked")
+public class JavaFacadeBenchmark {
+  private static final String[] ARGUMENTS = { "-v", "--size=10", "-q", "--name= value " };
+  private static final scala.collection.Seq<String> SCALA_ARGUMENTS = Translate.asStringSeq(ARGUMENTS);
+
+  private IParser parser;
+  private scalaopts.Parser scala_parser;
+
+  private static ICommandLineOption[] options() {
+    return new ICommandLineOption[] {
+      CommandLineOption
+        .named("size")
+        .longName("size")
+        .shortName("s")
+        .describedAs("size description")
+        .parseAs(DefaultIntegerOption$.MODULE$),
+
+      CommandLineOption
+        .named("name")
+        .longName("name")
+        .shortName("n")
+        .describedAs("name description")
+        .parseAs(new IOptionTransform<String>() {
+          @Override
+          public String apply(String value) {
+            return value.trim();
+          }
+        }),
+
+      CommandLineOption
+        .named("verbose")
+        .longName("verbose")
+        .shortName("v")
+        .minNumberOfRequiredValues(0)
+        .maxNumberOfRequiredValues(0)
+        .describedAs("verbose description")
+        .parseAs(DefaultFlagOption$.MODULE$),
+
+      CommandLineOption
+        .named("quiet")
+        .longName("quiet")
+        .shortName("q")
+        .minNumberOfRequiredValues(0)
+        .maxNumberOfRequiredValues(0)
+        .describedAs("quiet description")
+        .parseAs(DefaultFlagOption$.MODULE$)
+    };
+  }
+
+  @Setup
+  public void setup() {
+    parser = CommandLineOptions.build(options());
+    scala_parser = Specifications.javaFacadeEquivalent();
+  }
+
+  @Benchmark
+  public IParseResults parse() {
+    return parser.parse(ARGUMENTS);
+  }
+
+  @Benchmark
+  public int parseAndRead() {
+    final IParseResults results = parser.parse(ARGUMENTS);
+    return results.getInt("size", 0) + results.<String>getFirst("name").length() + (results.getBoolean("verbose", false) ? 1 : 0);
+  }
+
+  @Benchmark
+  public scalaopts.ParseResults scalaParse() {
+    return scala_parser.parseArguments(SCALA_ARGUMENTS);
+  }
+
+  @Benchmark
+  public int scalaParseAndRead() {
+    final scalaopts.ParseResults results = scala_parser.parseArguments(SCALA_ARGUMENTS);
+    return results.<Integer>first("size").get() + results.<String>first("name").get().length() + (results.optionResults().contains("verbose") ? 1 : 0);
+  }
+
+  @Benchmark
+  public IParseResults buildAndParse() {
+    return CommandLineOptions.build(options()).parse(ARGUMENTS);
+  }
+}
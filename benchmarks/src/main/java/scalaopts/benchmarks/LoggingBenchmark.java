@@ -0,0 +1,85 @@
+/*
+  Copyright (C) 2012-2013 the original author or authors.
+
+  See the LICENSE.txt file distributed with this work for additional
+  information regarding copyright ownership.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package scalaopts.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import scala.collection.IndexedSeq;
+import scalaopts.CompiledSpecification;
+import scalaopts.LogAppender;
+import scalaopts.LogLevel;
+import scalaopts.ParseResults;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses with the strategy's diagnostic logging off and at its most verbose level. Messages go to an
+ * appender that only counts them, so the difference between the two is the cost of building them.
+ *
+ * Run with "-prof gc": with logging off, gc.alloc.rate.norm matches {@link OptionSetBenchmark} for
+ * the same specification and the appender must not have been called (checked on tear down).
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoggingBenchmark {
+  @Param({"off", "finest"})
+  public String level;
+
+  @Param({"100"})
+  public int options;
+
+  @Param({"20"})
+  public int used;
+
+  private CountingAppender appender;
+  private CompiledSpecification specification;
+  private IndexedSeq<String> arguments;
+
+  @Setup
+  public void setup() {
+    appender = new CountingAppender();
+    specification = Specifications.optionSet(options, Specifications.loggingConfiguration(level, appender)).compile();
+    arguments = Specifications.optionSetArguments(options, used);
+  }
+
+  @TearDown
+  public void verify() {
+    if ("off".equals(level) && appender.messages != 0) {
+      throw new IllegalStateException("Logging is off but " + appender.messages + " messages were appended");
+    }
+  }
+
+  @Benchmark
+  public ParseResults parse() {
+    return specification.parseArguments(arguments);
+  }
+
+  private static final class CountingAppender implements LogAppender {
+    long messages;
+
+    @Override
+    public void append(LogLevel.EnumVal level, String message) {
+      messages++;
+    }
+  }
+}
@@ -0,0 +1,97 @@
+/*
+  Copyright (C) 2012-2013 the original author or authors.
+
+  See the LICENSE.txt file distributed with this work for additional
+  information regarding copyright ownership.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package scalaopts.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import scala.collection.IndexedSeq;
+import scala.collection.JavaConversions;
+import scalaopts.CommandLineOptionIndex;
+import scalaopts.CompiledSpecification;
+import scalaopts.LongNameTrie;
+import scalaopts.ParseResults;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the long name trie, resolving abbreviated long options with it and suggesting names for
+ * misspelled ones, for thousands of long names. Each operation handles 16 names.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LongNameTrieBenchmark {
+  private static final int NAMES = 16;
+
+  @Param({"100", "1000", "10000"})
+  public int options;
+
+  private CompiledSpecification compiled;
+  private CommandLineOptionIndex index;
+  private String[] abbreviated;
+  private String[] misspelled;
+  private IndexedSeq<String> arguments;
+
+  @Setup
+  public void setup() {
+    compiled = Specifications.wordOptions(options).compile();
+    index = compiled.options();
+    abbreviated = Specifications.abbreviatedNames(options, NAMES);
+    misspelled = Specifications.misspelledNames(options, NAMES);
+    final List<String> values = new ArrayList<String>();
+    for (String name : abbreviated) {
+      values.add("--" + name + "=value");
+    }
+    arguments = JavaConversions.asScalaBuffer(values).toIndexedSeq();
+    index.longNameTrie();
+  }
+
+  @Benchmark
+  public LongNameTrie build() {
+    return LongNameTrie.apply(index);
+  }
+
+  @Benchmark
+  public int resolveAbbreviations() {
+    int ids = 0;
+    for (String name : abbreviated) {
+      ids += index.idOfLongNameOrPrefix(name, 0, name.length());
+    }
+    return ids;
+  }
+
+  @Benchmark
+  public void suggest(Blackhole blackhole) {
+    final LongNameTrie trie = index.longNameTrie();
+    for (String name : misspelled) {
+      blackhole.consume(trie.suggestions(name, 2, 5));
+    }
+  }
+
+  @Benchmark
+  public ParseResults parseAbbreviations() {
+    return compiled.parseArguments(arguments);
+  }
+}
@@ -0,0 +1,55 @@
+/*
+  Copyright (C) 2012-2013 the original author or authors.
+
+  See the LICENSE.txt file distributed with this work for additional
+  information regarding copyright ownership.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package scalaopts.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import scala.collection.IndexedSeq;
+import scalaopts.CompiledSpecification;
+import scalaopts.ParseResults;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses long options with attached values ("--name=value").
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LongOptionBenchmark {
+  @Param({"8", "64"})
+  public int options;
+
+  private CompiledSpecification specification;
+  private IndexedSeq<String> arguments;
+
+  @Setup
+  public void setup() {
+    specification = Specifications.longOptions(options).compile();
+    arguments = Specifications.longOptionArguments(options);
+  }
+
+  @Benchmark
+  public ParseResults parse() {
+    return specification.parseArguments(arguments);
+  }
+}
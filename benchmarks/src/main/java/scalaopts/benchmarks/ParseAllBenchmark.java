@@ -0,0 +1,67 @@
+/*
+  Copyright (C) 2012-2013 the original author or authors.
+
+  See the LICENSE.txt file distributed with this work for additional
+  information regarding copyright ownership.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package scalaopts.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import scala.collection.IndexedSeq;
+import scala.collection.Seq;
+import scala.concurrent.forkjoin.ForkJoinPool;
+import scalaopts.CompiledSpecification;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses a batch of command lines with parseAll() on pools of increasing size. Throughput should scale
+ * close to linearly with the number of threads up to the number of cores.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParseAllBenchmark {
+  @Param({"1", "2", "4", "8"})
+  public int threads;
+
+  @Param({"10000"})
+  public int commandLines;
+
+  private ForkJoinPool pool;
+  private CompiledSpecification specification;
+  private IndexedSeq<Seq<String>> batch;
+
+  @Setup
+  public void setup() {
+    pool = new ForkJoinPool(threads);
+    specification = Specifications.optionSet(100).compile();
+    batch = Specifications.optionSetCommandLines(100, commandLines, 10);
+  }
+
+  @TearDown
+  public void tearDown() {
+    pool.shutdown();
+  }
+
+  @Benchmark
+  public Object parseAll() {
+    return specification.parseAll(batch, pool);
+  }
+}
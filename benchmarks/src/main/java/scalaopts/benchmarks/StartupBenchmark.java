@@ -0,0 +1,57 @@
+/*
+  Copyright (C) 2012-2013 the original author or authors.
+
+  See the LICENSE.txt file distributed with this work for additional
+  information regarding copyright ownership.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package scalaopts.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import scalaopts.CompiledSpecification;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What a program does with its specification before it can parse: builds it with the DSL and
+ * validates it, or loads it from a snapshot written at build time.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+  @Param({"10", "100", "1000"})
+  public int options;
+
+  private byte[] snapshot;
+
+  @Setup
+  public void setup() {
+    snapshot = Specifications.optionSetSnapshot(options);
+  }
+
+  @Benchmark
+  public CompiledSpecification build() {
+    return Specifications.optionSet(options).compile();
+  }
+
+  @Benchmark
+  public CompiledSpecification loadSnapshot() {
+    return Specifications.optionSetFromSnapshot(snapshot).compile();
+  }
+}
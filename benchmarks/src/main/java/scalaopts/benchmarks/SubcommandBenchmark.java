@@ -0,0 +1,64 @@
+/*
+  Copyright (C) 2012-2013 the original author or authors.
+
+  See the LICENSE.txt file distributed with this work for additional
+  information regarding copyright ownership.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package scalaopts.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import scala.collection.IndexedSeq;
+import scalaopts.CommandParseResults;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup plus a single parse for a program with many subcommands: building only the invoked
+ * subcommand's options should cost the same however many subcommands there are, where building every
+ * one of them up front grows with the count.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SubcommandBenchmark {
+  @Param({"10", "150", "1000"})
+  public int commands;
+
+  @Param({"20"})
+  public int options;
+
+  private String[] names;
+  private IndexedSeq<String> arguments;
+
+  @Setup
+  public void setup() {
+    names = Specifications.commandNames(commands);
+    arguments = Specifications.subcommandArguments(names);
+  }
+
+  @Benchmark
+  public CommandParseResults lazilyBuilt() {
+    return Specifications.subcommands(names, options, false).parseArguments(arguments);
+  }
+
+  @Benchmark
+  public CommandParseResults eagerlyBuilt() {
+    return Specifications.subcommands(names, options, true).parseArguments(arguments);
+  }
+}
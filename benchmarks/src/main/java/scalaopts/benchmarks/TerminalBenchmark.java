@@ -0,0 +1,56 @@
+/*
+  Copyright (C) 2012-2013 the original author or authors.
+
+  See the LICENSE.txt file distributed with this work for additional
+  information regarding copyright ownership.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package scalaopts.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import scalaopts.common.platform.ITerminal;
+import scalaopts.common.platform.Posix;
+import scalaopts.common.platform.Terminal;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queries the terminal's dimensions through the cached platform terminal and, for comparison, with a
+ * native call every time.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TerminalBenchmark {
+  private ITerminal uncached;
+
+  @Setup
+  public void setup() {
+    uncached = new Posix.Terminal(Posix.TIOCGWINSZ_LINUX);
+  }
+
+  @Benchmark
+  public ITerminal.Dimension cached() {
+    return Terminal.queryTerminalDimensions();
+  }
+
+  @Benchmark
+  public ITerminal.Dimension uncached() {
+    return uncached.queryTerminalDimensions();
+  }
+}
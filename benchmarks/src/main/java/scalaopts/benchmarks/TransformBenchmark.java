@@ -0,0 +1,73 @@
+/*
+  Copyright (C) 2012-2013 the original author or authors.
+
+  See the LICENSE.txt file distributed with this work for additional
+  information regarding copyright ownership.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package scalaopts.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import scala.Function1;
+import scala.Option;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the exception-free string transforms with the previous try/catch based ones on batches of
+ * valid and malformed values.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransformBenchmark {
+  @Param({"boolean", "int", "long", "double"})
+  public String kind;
+
+  @Param({"true", "false"})
+  public boolean valid;
+
+  @Param({"64"})
+  public int values;
+
+  private Function1<String, Option<Object>> current;
+  private Function1<String, Option<Object>> legacy;
+  private String[] inputs;
+
+  @Setup
+  public void setup() {
+    current = Transforms.current(kind);
+    legacy = Transforms.legacy(kind);
+    inputs = Transforms.inputs(kind, valid, values);
+  }
+
+  @Benchmark
+  public void current(Blackhole blackhole) {
+    for (String input : inputs) {
+      blackhole.consume(current.apply(input));
+    }
+  }
+
+  @Benchmark
+  public void legacy(Blackhole blackhole) {
+    for (String input : inputs) {
+      blackhole.consume(legacy.apply(input));
+    }
+  }
+}
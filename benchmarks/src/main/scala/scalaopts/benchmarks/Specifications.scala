@@ -0,0 +1,262 @@
+/*
+  Copyright (C) 2012-2013 the original author or authors.
+
+  See the LICENSE.txt file distributed with this work for additional
+  information regarding copyright ownership.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package scalaopts.benchmarks
+
+import scalaopts._
+
+/**
+ * Specifications and argument lists shared by the benchmarks. Built with the Scala DSL so the
+ * Java benchmark classes don't have to deal with its implicits.
+ */
+object Specifications {
+  val SHORT_NAMES = "abcdefghijklmnopqrstuvwxyz0123456789"
+
+  def optionName(i: Int): String = "option-" + i
+
+  /**
+   * A specification with the given number of options. Even numbered options are flags and odd
+   * numbered options take a single integer value. The first options also get a short name.
+   */
+  def optionSet(size: Int): Parser =
+    optionSet(size, CommandLineOptions.DEFAULT_PARSER_CONFIGURATION)
+
+  def optionSet(size: Int, configuration: ParserConfiguration): Parser =
+    CommandLineOptions.applySeq(configuration)(
+      for (i <- 0 until size)
+        yield {
+          val short_names = if (i < SHORT_NAMES.length) List(SHORT_NAMES.charAt(i).toString) else List()
+          val description = "Description of " + optionName(i)
+          if (i % 2 == 0) {
+            step2ToFinal(short_names.foldLeft(CommandLineFlag named optionName(i))(_ shortName _) describedAs description)
+          } else {
+            step3ToFinal(short_names.foldLeft(CommandLineOption named optionName(i))(_ shortName _) describedAs description parseAs IntegerOption())
+          }
+        }
+    )
+
+  /** The option set of the given size as a [[scalaopts.SpecificationSnapshot]]. */
+  def optionSetSnapshot(size: Int): Array[Byte] =
+    SpecificationSnapshot.toByteArray(optionSet(size))
+
+  /** Loads an option set snapshot, binding the same parsers [[scalaopts.benchmarks.Specifications#optionSet]] uses. */
+  def optionSetFromSnapshot(snapshot: Array[Byte]): Parser =
+    SpecificationSnapshot.fromByteArray(snapshot) { name =>
+      if (name.substring(optionName(0).length - 1).toInt % 2 == 0) OptionBinding(BooleanOption(true), Some(false))
+      else OptionBinding(IntegerOption())
+    }
+
+  /** Uses (roughly) every n-th option of an option set of the given size, where n is chosen so that count options are used. */
+  def optionSetArguments(size: Int, count: Int): IndexedSeq[String] = {
+    val step = math.max(1, size / count)
+    for (i <- (0 until size by step).take(count))
+      yield if (i % 2 == 0) "--" + optionName(i) else "--" + optionName(i) + "=" + i
+  }
+
+  /** A GNU strategy configuration that logs at the given level (e.g. "off", "finest") to the given appender. */
+  def loggingConfiguration(level: String, appender: LogAppender): ParserConfiguration =
+    new ParserConfiguration(new strategy.GNUParserStrategy(), ParserLogger(LogLevel.fromTitle(level).get, appender))
+
+  /** A batch of command lines for an option set of the given size, each using a different mix of options. */
+  def optionSetCommandLines(size: Int, count: Int, used: Int): IndexedSeq[Seq[String]] = {
+    val random = new util.Random(count)
+    IndexedSeq.fill(count)(random.shuffle(optionSetArguments(size, size)).take(used))
+  }
+
+  /**
+   * One option per short name, parsed with the given strategy ("gnu" or "posix"). Even numbered
+   * options are flags and odd numbered options take a single integer value.
+   */
+  def shortOptionSet(strategy: String): Parser =
+    CommandLineOptions.applySeq(strategy match {
+      case "gnu" => CommandLineOptions.DEFAULT_PARSER_CONFIGURATION
+      case "posix" => CommandLineOptions.POSIX_PARSER_CONFIGURATION
+    })(
+      for (i <- 0 until SHORT_NAMES.length)
+        yield {
+          if (i % 2 == 0) step2ToFinal(CommandLineFlag named optionName(i) shortName SHORT_NAMES.charAt(i).toString)
+          else step3ToFinal(CommandLineOption named optionName(i) shortName SHORT_NAMES.charAt(i).toString parseAs IntegerOption())
+        }
+    )
+
+  /**
+   * Every flag of a short option set bundled together followed by every value option with its value
+   * attached (e.g. "-b1"), which both strategies read the same way.
+   */
+  def shortOptionArguments(): IndexedSeq[String] =
+    ("-" + SHORT_NAMES.indices.filter(_ % 2 == 0).map(SHORT_NAMES.charAt).mkString) +:
+      (for (i <- SHORT_NAMES.indices if i % 2 == 1) yield "-" + SHORT_NAMES.charAt(i) + i)
+
+  /** Flags that can be bundled together and repeated. */
+  def flagBundle(size: Int): Parser =
+    CommandLineOptions.applySeq(
+      for (i <- 0 until size)
+        yield step2ToFinal(CommandLineFlag named optionName(i) shortName SHORT_NAMES.charAt(i).toString arity UNBOUNDED)
+    )
+
+  /** The same bundle of every flag (e.g. "-abcdef") repeated. */
+  def flagBundleArguments(size: Int, repeat: Int): IndexedSeq[String] =
+    IndexedSeq.fill(repeat)("-" + SHORT_NAMES.take(size))
+
+  /** Options that take a single string value. */
+  def longOptions(size: Int): Parser =
+    CommandLineOptions.applySeq(
+      for (i <- 0 until size)
+        yield step3ToFinal(CommandLineOption named optionName(i) parseAs StringOption())
+    )
+
+  /** Every option with its value attached, e.g. "--option-0=value-0". */
+  def longOptionArguments(size: Int): IndexedSeq[String] =
+    for (i <- 0 until size)
+      yield "--" + optionName(i) + "=value-" + i
+
+  /** Distinct lower case words of 8 to 14 letters, the same ones every time for a given size. */
+  def optionWords(size: Int): IndexedSeq[String] = {
+    val random = new util.Random(size)
+    val words = new collection.mutable.LinkedHashSet[String]()
+    while (words.size < size)
+      words += Seq.fill(8 + random.nextInt(7))(('a' + random.nextInt(26)).toChar).mkString
+    words.toIndexedSeq
+  }
+
+  /** Options named with [[scalaopts.benchmarks.Specifications#optionWords]] that take a single string value. */
+  def wordOptions(size: Int): Parser =
+    CommandLineOptions.applySeq(
+      for (word <- optionWords(size))
+        yield step3ToFinal(CommandLineOption named word parseAs StringOption())
+    )
+
+  /** Every n-th option name without its last two letters, enough of each for count names. */
+  def abbreviatedNames(size: Int, count: Int): Array[String] =
+    (for (i <- 0 until size by math.max(1, size / count)) yield optionWords(size)(i).dropRight(2)).take(count).toArray
+
+  /** As above with the middle two letters of each name swapped instead. */
+  def misspelledNames(size: Int, count: Int): Array[String] =
+    for (name <- (for (i <- 0 until size by math.max(1, size / count)) yield optionWords(size)(i)).take(count).toArray)
+      yield {
+        val middle = name.length / 2
+        name.substring(0, middle - 1) + name.charAt(middle) + name.charAt(middle - 1) + name.substring(middle + 1)
+      }
+
+  /**
+   * Flags that each depend on three others spread across the whole specification, forming plenty of
+   * cycles. Every 16th flag is required.
+   */
+  def dependencyGraph(size: Int): Parser =
+    CommandLineOptions.applySeq(
+      for (i <- 0 until size)
+        yield {
+          val dependencies = List(i + 1, i * 7 + 3, i + size / 2).map(d => optionName(d % size)).distinct.filter(_ != optionName(i))
+          step2ToFinal(dependencies.foldLeft(CommandLineFlag named optionName(i) required (i % 16 == 0))(_ dependsOn _))
+        }
+    )
+
+  /** Every n-th flag of a dependency graph of the given size. With n > 1 most flags are missing dependencies. */
+  def dependencyGraphArguments(size: Int, n: Int): IndexedSeq[String] =
+    for (i <- 0 until size by n)
+      yield "--" + optionName(i)
+
+  /** The specification [[scalaopts.benchmarks.JavaFacadeBenchmark]] builds through the Java facade. */
+  def javaFacadeEquivalent(): Parser =
+    CommandLineOptions(
+      CommandLineOption named "size" shortName "s" describedAs "size description" parseAs IntegerOption(),
+      CommandLineOption named "name" shortName "n" describedAs "name description" parseAs new CustomOptionParser[String](None, false, true, s => Some(s.trim)),
+      CommandLineFlag named "verbose" shortName "v" describedAs "verbose description",
+      CommandLineFlag named "quiet" shortName "q" describedAs "quiet description"
+    )
+
+  def commandNames(count: Int): Array[String] =
+    Array.tabulate(count)("command-" + _)
+
+  /**
+   * A root option set of 4 options dispatching to subcommands with the given names, each with an
+   * option set of the given size. Nothing but the root is built unless eager is true, in which case
+   * every subcommand's options are built and compiled up front.
+   */
+  def subcommands(names: Array[String], size: Int, eager: Boolean): CommandParser = {
+    val commands = names.map(name => Subcommand(name)(optionSet(size)))
+    if (eager) {
+      commands.foreach(_.parser.compile())
+    }
+    new CommandParser(optionSet(4), commands)
+  }
+
+  /** Global options followed by the subcommand in the middle and some of its options. */
+  def subcommandArguments(names: Array[String]): IndexedSeq[String] =
+    IndexedSeq("-a", "--option-1=1", names(names.length / 2), "--option-0", "--option-3=3")
+
+  /**
+   * A "-D" option for "key=value" settings, accumulated into a [[scalaopts.StringList]] ("list") or a
+   * [[scalaopts.PropertyMapAccumulator]] ("map").
+   */
+  def properties(accumulator: String): Parser = {
+    val define = CommandLineOption named "define" shortName "D" arity UNBOUNDED parseAs StringOption()
+    CommandLineOptions(
+      accumulator match {
+        case "list" => define accumulateWith StringList()
+        case "map" => define accumulateWith PropertyMapAccumulator()
+      }
+    )
+  }
+
+  /** Settings for count distinct keys, e.g. "-Dsetting.7=value-7". */
+  def propertyArguments(count: Int): IndexedSeq[String] =
+    for (i <- 0 until count)
+      yield "-Dsetting." + i + "=value-" + i
+
+  /**
+   * Looks up every setting of a [[scalaopts.benchmarks.Specifications#properties]] parse by key. A
+   * list is split into a map first, as callers had to before there was a map accumulator.
+   */
+  def readProperties(results: ParseResults, accumulator: String, count: Int): Int = {
+    val lookup: String => Option[String] = accumulator match {
+      case "list" =>
+        val map = new collection.mutable.HashMap[String, String]()
+        for (occurrence <- results[List[String]]("define").get; setting <- occurrence) {
+          val (key, value, _) = strategy.splitAtEquals(setting)
+          map(key) = value
+        }
+        map.get
+      case "map" =>
+        results.properties("define").get.get
+    }
+    var found = 0
+    for (i <- 0 until count if lookup("setting." + i).isDefined)
+      found += 1
+    found
+  }
+
+  /** A single option that takes an unbounded number of integer values. */
+  def unbounded(): Parser =
+    unbounded("list")
+
+  /** As above, accumulated into an [[scalaopts.IntegerList]] ("list") or an [[scalaopts.IntArrayAccumulator]] ("array"). */
+  def unbounded(accumulator: String): Parser = {
+    val values = CommandLineOption named "values" shortName "v" arguments (1, UNBOUNDED) parseAs IntegerOption()
+    CommandLineOptions(
+      accumulator match {
+        case "list" => values accumulateWith IntegerList()
+        case "array" => values accumulateWith IntArrayAccumulator()
+      }
+    )
+  }
+
+  def unboundedArguments(count: Int): IndexedSeq[String] =
+    "--values=0" +: (1 until count).map(_.toString)
+}
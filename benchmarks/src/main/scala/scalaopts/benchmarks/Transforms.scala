@@ -0,0 +1,67 @@
+/*
+  Copyright (C) 2012-2013 the original author or authors.
+
+  See the LICENSE.txt file distributed with this work for additional
+  information regarding copyright ownership.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package scalaopts.benchmarks
+
+import scalaopts.OptionParserStringTransforms._
+
+/**
+ * Transforms and inputs for [[scalaopts.benchmarks.TransformBenchmark]].
+ */
+object Transforms {
+  /** The transforms as they were before they stopped relying on exceptions, for comparison. */
+  object Legacy {
+    val TRANSFORM_BOOLEAN: FnTransform[Boolean] = s => try { Some("1".equals(s) || s.toBoolean) } catch { case _: Throwable => None }
+    val TRANSFORM_INT:     FnTransform[Int]     = s => try { Some(s.toInt)                     } catch { case _: Throwable => None }
+    val TRANSFORM_LONG:    FnTransform[Long]    = s => try { Some(s.toLong)                    } catch { case _: Throwable => None }
+    val TRANSFORM_DOUBLE:  FnTransform[Double]  = s => try { Some(s.toDouble)                  } catch { case _: Throwable => None }
+  }
+
+  def current(kind: String): FnTransform[Any] = kind match {
+    case "boolean" => TRANSFORM_BOOLEAN
+    case "int" => TRANSFORM_INT
+    case "long" => TRANSFORM_LONG
+    case "double" => TRANSFORM_DOUBLE
+  }
+
+  def legacy(kind: String): FnTransform[Any] = kind match {
+    case "boolean" => Legacy.TRANSFORM_BOOLEAN
+    case "int" => Legacy.TRANSFORM_INT
+    case "long" => Legacy.TRANSFORM_LONG
+    case "double" => Legacy.TRANSFORM_DOUBLE
+  }
+
+  /** Valid values of the given kind, or malformed ones (empty, garbage, overflowing). */
+  def inputs(kind: String, valid: Boolean, count: Int): Array[String] = {
+    val random = new util.Random(count)
+    Array.tabulate(count) { i =>
+      if (valid) kind match {
+        case "boolean" => if (i % 2 == 0) "true" else "false"
+        case "int" => random.nextInt().toString
+        case "long" => random.nextLong().toString
+        case "double" => random.nextDouble().toString
+      } else i % 4 match {
+        case 0 => ""
+        case 1 => "not-a-value-" + i
+        case 2 => "99999999999999999999" + i
+        case _ => random.nextInt().toString + "x"
+      }
+    }
+  }
+}
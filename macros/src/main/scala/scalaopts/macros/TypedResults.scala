@@ -0,0 +1,116 @@
+/*
+  Copyright (C) 2012-2013 the original author or authors.
+
+  See the LICENSE.txt file distributed with this work for additional
+  information regarding copyright ownership.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package scalaopts.macros
+
+import language.experimental.macros
+import scala.reflect.macros.Context
+import scalaopts._
+
+/**
+ * Generates the code that fills a case class from a parse so reading an option's value is a field
+ * access instead of a lookup by name followed by a cast.
+ *
+ * Each field corresponds to the option of the same name (see [[scalaopts.CompiledSpecification#slotIds]]).
+ * How a field is filled depends on its declared type:
+ *
+ *  - Boolean: true if the option was found when it takes no argument (e.g. a flag), otherwise the first
+ *    occurrence's value or the option's default.
+ *  - Option[A]: the first occurrence's value as [[scalaopts.ParseResults#first]] returns it.
+ *  - Seq[A] or List[A]: every occurrence's value as [[scalaopts.ParseResults#apply]] returns them.
+ *  - anything else: the first occurrence's value, or the option's default if it wasn't found. A
+ *    primitive field (e.g. Int) can't be left null, so its option must have a default.
+ *
+ * {{{
+ *   case class Options(size: Int, verbose: Boolean, files: List[List[String]])
+ *
+ *   val parser = TypedResults.bind[Options](CommandLineOptions(...))
+ *   val size: Int = parser.parse(args: _*).options.size
+ * }}}
+ *
+ * Only the code that fills the case class is generated at compile time. The specification isn't known
+ * until run time, so field names and defaults are checked when bind is evaluated, which throws an
+ * IllegalArgumentException if a field doesn't match an option. Field types can't be checked until
+ * values are found, so a field whose type doesn't match its option's values throws a
+ * ClassCastException when it's filled.
+ */
+object TypedResults {
+  def bind[T](parser: Parser): TypedParser[T] = macro TypedResultsMacros.bind[T]
+}
+
+object TypedResultsMacros {
+  def bind[T: c.WeakTypeTag](c: Context)(parser: c.Expr[Parser]): c.Expr[TypedParser[T]] = {
+    import c.universe._
+
+    val tpe = weakTypeOf[T]
+    val symbol = tpe.typeSymbol
+    if (!symbol.isClass || !symbol.asClass.isCaseClass) {
+      c.abort(c.enclosingPosition, s"$tpe must be a case class")
+    }
+
+    val constructor = tpe.declaration(nme.CONSTRUCTOR).asTerm.alternatives.map(_.asMethod).find(_.isPrimaryConstructor).get
+    if (constructor.paramss.length != 1) {
+      c.abort(c.enclosingPosition, s"$tpe must have a single parameter list")
+    }
+    val fields = constructor.paramss.head
+
+    val OptionSymbol = typeOf[Option[_]].typeSymbol
+    val ListSymbol = typeOf[List[_]].typeSymbol
+    val SeqSymbol = typeOf[Seq[_]].typeSymbol
+
+    //Fields that would be filled with 0 or the like if their option had no default and wasn't found.
+    val primitives = fields.filter(field => field.typeSignature.asSeenFrom(tpe, symbol) <:< typeOf[AnyVal])
+
+    val slots = newTermName("slots")
+    val ids = newTermName("ids")
+
+    //One argument per field, reading the field's slot and casting it to the field's type.
+    val arguments =
+      for ((field, i) <- fields.zipWithIndex)
+        yield {
+          val field_type = field.typeSignature.asSeenFrom(tpe, symbol)
+          def read(method: String) = Apply(Select(Ident(slots), newTermName(method)), List(Apply(Ident(ids), List(Literal(Constant(i))))))
+          if (field_type =:= typeOf[Boolean]) {
+            read("boolean")
+          } else {
+            val value = field_type.typeSymbol match {
+              case OptionSymbol => read("firstOption")
+              case ListSymbol | SeqSymbol => read("all")
+              case _ => read("first")
+            }
+            TypeApply(Select(value, newTermName("asInstanceOf")), List(TypeTree(field_type)))
+          }
+        }
+
+    val create = c.Expr[(SlotResults, Array[Int]) => T](
+      Function(
+        List(
+          ValDef(Modifiers(Flag.PARAM), slots, TypeTree(typeOf[SlotResults]), EmptyTree),
+          ValDef(Modifiers(Flag.PARAM), ids, TypeTree(typeOf[Array[Int]]), EmptyTree)
+        ),
+        Apply(Select(New(TypeTree(tpe)), nme.CONSTRUCTOR), arguments)
+      )
+    )
+    def namesOf(fields: List[Symbol]) = c.Expr[List[String]](Apply(Select(reify(List).tree, newTermName("apply")), fields.map(field => Literal(Constant(field.name.decoded)))))
+    val names = namesOf(fields)
+    val primitive_names = namesOf(primitives)
+
+    reify(new TypedParser[T](parser.splice.compile(), names.splice, create.splice, primitive_names.splice))
+  }
+}
@@ -0,0 +1,81 @@
+/*
+  Copyright (C) 2012-2013 the original author or authors.
+
+  See the LICENSE.txt file distributed with this work for additional
+  information regarding copyright ownership.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package scalaopts.macros
+
+import org.scalatest.junit.JUnitRunner
+import org.scalatest.{SeveredStackTraces, FunSuite}
+import org.junit.runner.RunWith
+import org.scalatest.matchers.ShouldMatchers
+import scalaopts._
+
+case class Options(size: Int, name: String, verbose: Boolean, level: Option[Int], values: List[List[Int]], dry_run: Boolean)
+
+@RunWith(classOf[JUnitRunner])
+class TypedResultsTest extends FunSuite with ShouldMatchers with SeveredStackTraces {
+
+  val specification = CommandLineOptions(
+    CommandLineOption named "size" shortName "s" default 10 parseAs IntegerOption(),
+    CommandLineOption named "name" parseAs StringOption(),
+    CommandLineFlag named "verbose" shortName "v",
+    CommandLineOption named "level" parseAs IntegerOption(),
+    CommandLineOption named "values" arguments (1, UNBOUNDED) arity UNBOUNDED parseAs IntegerOption() accumulateWith IntegerList(),
+    CommandLineFlag named "dry-run"
+  )
+
+  test("typed results") {
+    val parser = TypedResults.bind[Options](specification)
+
+    val results = parser.parse("-s5", "--name=x", "-v", "--values=1", "2", "--values=3", "--dry-run")
+    results.success should be (true)
+    results.options should be (Options(5, "x", true, None, List(List(1, 2), List(3)), true))
+
+    val defaults = parser.parse().options
+    defaults should be (Options(10, null, false, None, List(), false))
+    parser.parse("--level=3").options.level should be (Some(3))
+
+    //The same values the name-based lookups return.
+    val args = Seq("--values=4", "-s7")
+    val expected = specification.parseArguments(args)
+    val typed = parser.parseArguments(args).options
+    Some(typed.size) should be (expected.first[Int]("size"))
+    Some(typed.values) should be (expected[List[Int]]("values"))
+  }
+
+  test("fields must match options") {
+    case class Unknown(size: Int, colour: String)
+    evaluating { TypedResults.bind[Unknown](specification) } should produce [IllegalArgumentException]
+
+    //Would be 0 whenever --level isn't given.
+    case class NoDefault(size: Int, level: Int)
+    evaluating { TypedResults.bind[NoDefault](specification) } should produce [IllegalArgumentException]
+  }
+
+  test("boolean values") {
+    case class Switches(verbose: Boolean, colour: Boolean, quiet: Boolean)
+    val parser = TypedResults.bind[Switches](CommandLineOptions(
+      CommandLineFlag named "verbose" shortName "v",
+      CommandLineOption named "colour" default true parseAs BooleanOption(),
+      CommandLineOption named "quiet" default false parseAs BooleanOption()
+    ))
+
+    parser.parse("--colour=false", "--quiet=true").options should be (Switches(false, false, true))
+    parser.parse("-v").options should be (Switches(true, true, false))
+  }
+}
@@ -30,6 +30,45 @@ object ProjectBuild extends Build {
     styleCheckSetting
   )
 
+  /***********************************************************
+   * BENCHMARKS
+   *
+   * JMH benchmarks for the parser hot paths. The benchmarks are written in Java so that JMH's
+   * annotation processor generates the harness; the specifications they use are built in Scala.
+   *
+   *   sbt "benchmarks/run-main org.openjdk.jmh.Main -prof gc -rf json -rff target/jmh-result.json"
+   */
+
+  val jmhVersion = "1.37"
+
+  lazy val benchmarks = Project(id = "benchmarks", base = file("benchmarks")) dependsOn(project) settings(
+    scalaVersion := "2.10.1",
+    scalacOptions ++= Seq("-deprecation", "-feature"),
+    javacOptions ++= Seq("-source", "1.8", "-target", "1.8"),
+    libraryDependencies ++= Seq(
+      "org.openjdk.jmh" % "jmh-core" % jmhVersion,
+      "org.openjdk.jmh" % "jmh-generator-annprocess" % jmhVersion
+    ),
+    fork in run := true
+  )
+
+  /***********************************************************
+   * MACROS
+   *
+   * Compile-time generation of typed parse results (see scalaopts.macros.TypedResults). Macros must
+   * be compiled before the code that expands them, so they live in their own project.
+   */
+
+  lazy val macros = Project(id = "macros", base = file("macros")) dependsOn(project) settings(
+    scalaVersion := "2.10.1",
+    scalacOptions ++= Seq("-deprecation", "-feature"),
+    libraryDependencies ++= Seq(
+      "org.scala-lang" % "scala-reflect" % "2.10.1",
+      "org.scalatest" %% "scalatest" % "1.9.1" % "test",
+      "junit" % "junit" % "4.11" % "test"
+    )
+  )
+
   val styleCheck = TaskKey[Unit]("checkStyle")
 
   /**
@@ -43,4 +82,4 @@ object ProjectBuild extends Build {
   }
 
   val checkStyleSetting = styleCheckSetting
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,92 @@
+/*
+  Copyright (C) 2012-2013 the original author or authors.
+
+  See the LICENSE.txt file distributed with this work for additional
+  information regarding copyright ownership.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package scalaopts.common.platform;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Remembers another terminal's dimensions so that asking for them repeatedly (e.g. when rendering help
+ * or progress output) doesn't make a native call every time. The dimensions are queried again once
+ * they're older than the time to live or after {@link #invalidate()} (e.g. when the terminal is
+ * resized).
+ *
+ * Thread-safe.
+ */
+public class CachingTerminal implements ITerminal {
+  public static final long DEFAULT_TIME_TO_LIVE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private static class Entry {
+    final Dimension dimension;
+    final long queried;
+    final int generation;
+
+    Entry(Dimension dimension, long queried, int generation) {
+      this.dimension = dimension;
+      this.queried = queried;
+      this.generation = generation;
+    }
+  }
+
+  private final ITerminal terminal;
+  private final long timeToLiveNanos;
+
+  //Incremented on every invalidation so a query that was in flight at the time isn't cached.
+  private final AtomicInteger generation = new AtomicInteger();
+  private volatile Entry cached;
+
+  public CachingTerminal(ITerminal terminal) {
+    this(terminal, DEFAULT_TIME_TO_LIVE_NANOS);
+  }
+
+  public CachingTerminal(ITerminal terminal, long timeToLiveNanos) {
+    if (terminal == null) {
+      throw new IllegalArgumentException("terminal cannot be null");
+    }
+    if (timeToLiveNanos < 0L) {
+      throw new IllegalArgumentException("timeToLiveNanos cannot be negative");
+    }
+    this.terminal = terminal;
+    this.timeToLiveNanos = timeToLiveNanos;
+  }
+
+  public ITerminal getTerminal() {
+    return terminal;
+  }
+
+  /** Forgets the cached dimensions. The next query asks the terminal again. */
+  public void invalidate() {
+    generation.incrementAndGet();
+  }
+
+  @Override
+  public Dimension queryTerminalDimensions() {
+    final Entry entry = cached;
+    final int current = generation.get();
+    final long now = System.nanoTime();
+    if (entry != null && entry.generation == current && now - entry.queried < timeToLiveNanos) {
+      return entry.dimension;
+    }
+
+    final Dimension dimension = terminal.queryTerminalDimensions();
+    cached = new Entry(dimension, now, current);
+    return dimension;
+  }
+}
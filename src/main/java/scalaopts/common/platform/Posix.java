@@ -0,0 +1,220 @@
+/*
+  Copyright (C) 2012-2013 the original author or authors.
+
+  See the LICENSE.txt file distributed with this work for additional
+  information regarding copyright ownership.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package scalaopts.common.platform;
+
+import com.sun.jna.Native;
+import com.sun.jna.NativeLong;
+import com.sun.jna.Structure;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+import static scalaopts.common.platform.JNAUtils.fromSeq;
+
+/**
+ * Provides native access to platform-specific, terminal-related information.
+ */
+@SuppressWarnings("all")
+public class Posix {
+  //The ioctl request that reads the window size differs between platforms.
+  public static final long TIOCGWINSZ_LINUX = 0x5413L;
+  public static final long TIOCGWINSZ_BSD = 0x40087468L;
+  public static final long TIOCGWINSZ_SOLARIS = 0x5468L;
+
+  //Used when the request isn't known. Only the environment is consulted.
+  public static final long TIOCGWINSZ_UNKNOWN = 0L;
+
+  private static class LibC {
+    static {
+      Native.register("c");
+    }
+
+    public static final int STDIN_FILENO = 0;
+    public static final int STDOUT_FILENO = 1;
+    public static final int STDERR_FILENO = 2;
+
+    // http://man7.org/linux/man-pages/man4/tty_ioctl.4.html
+    public static class winsize extends Structure {
+      public short ws_row;
+      public short ws_col;
+      public short ws_xpixel;
+      public short ws_ypixel;
+
+      @Override
+      protected List<String> getFieldOrder() {
+        return fromSeq(
+            "ws_row"
+            , "ws_col"
+            , "ws_xpixel"
+            , "ws_ypixel"
+        );
+      }
+    }
+
+    public static native int ioctl(int fd, NativeLong request, winsize ws);
+  }
+
+  /**
+   * Reads the window size of whichever of stdout, stderr or stdin is a terminal. If none of them are
+   * (e.g. every stream is redirected) or the C library can't be loaded, falls back to the COLUMNS and
+   * LINES environment variables and then to the default dimensions. Never runs stty.
+   *
+   * Loading JNA and the C library takes far longer than the query itself, so where it can be told
+   * cheaply that none of the streams are terminals (see {@link #mightBeTerminal()}) they aren't loaded.
+   */
+  public static class Terminal implements ITerminal {
+    private static final int[] DESCRIPTORS = { LibC.STDOUT_FILENO, LibC.STDERR_FILENO, LibC.STDIN_FILENO };
+
+    private final long request;
+    private volatile boolean nativeAvailable;
+
+    public Terminal(long request) {
+      this.request = request;
+      this.nativeAvailable = request != TIOCGWINSZ_UNKNOWN;
+    }
+
+    @Override
+    public ITerminal.Dimension queryTerminalDimensions() {
+      if (nativeAvailable && mightBeTerminal()) {
+        try {
+          final LibC.winsize size = new LibC.winsize();
+          for (int fd : DESCRIPTORS) {
+            if (LibC.ioctl(fd, new NativeLong(request), size) == 0 && size.ws_col > 0) {
+              return new ITerminal.Dimension(size.ws_col & 0xFFFF, size.ws_row > 0 ? size.ws_row & 0xFFFF : DEFAULT_DIMENSIONS.Height);
+            }
+          }
+        } catch (LinkageError e) {
+          //The C library (or JNA itself) couldn't be loaded, so don't try again.
+          nativeAvailable = false;
+        }
+      }
+
+      return new ITerminal.Dimension(
+          fromEnvironment("COLUMNS", DEFAULT_DIMENSIONS.Width),
+          fromEnvironment("LINES", DEFAULT_DIMENSIONS.Height)
+      );
+    }
+
+    /**
+     * False only if none of the streams are terminals. With a console both stdin and stdout are. Without
+     * one, Linux names the device each descriptor is open on under /proc/self/fd. Elsewhere the streams
+     * can't be told apart without native calls, so they might be terminals.
+     */
+    static boolean mightBeTerminal() {
+      if (System.console() != null) {
+        return true;
+      }
+
+      final File descriptors = new File("/proc/self/fd");
+      if (!descriptors.isDirectory()) {
+        return true;
+      }
+
+      for (int fd : DESCRIPTORS) {
+        try {
+          final String device = new File(descriptors, Integer.toString(fd)).getCanonicalPath();
+          if (device.startsWith("/dev/pts/") || device.startsWith("/dev/tty") || device.equals("/dev/console")) {
+            return true;
+          }
+        } catch (IOException e) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private static long fromEnvironment(String name, long defaultValue) {
+      final String value = System.getenv(name);
+      if (value != null) {
+        try {
+          final long parsed = Long.parseLong(value.trim());
+          if (parsed > 0) {
+            return parsed;
+          }
+        } catch (NumberFormatException e) {
+          //Use the default.
+        }
+      }
+      return defaultValue;
+    }
+  }
+
+  /**
+   * Runs the task on a signal dispatch thread whenever the terminal is resized (SIGWINCH). Any handler
+   * that was already installed still runs.
+   *
+   * @return false if the JVM doesn't support handling the signal.
+   */
+  public static boolean onWindowChange(Runnable task) {
+    try {
+      WindowChange.install(task);
+      return true;
+    } catch (ReflectiveOperationException e) {
+      //No sun.misc.Signal, or (wrapped in an InvocationTargetException) an unknown signal or one the JVM uses itself.
+      return false;
+    } catch (LinkageError e) {
+      return false;
+    } catch (SecurityException e) {
+      return false;
+    }
+  }
+
+  /**
+   * sun.misc.Signal is an internal API, so it's looked up reflectively rather than compiled against and
+   * the handler is a proxy of its SignalHandler interface. Where it's missing only the cache's TTL applies.
+   */
+  private static class WindowChange {
+    static void install(final Runnable task) throws ReflectiveOperationException {
+      final Class<?> signal_class = Class.forName("sun.misc.Signal");
+      final Class<?> handler_class = Class.forName("sun.misc.SignalHandler");
+      final Object default_handler = handler_class.getField("SIG_DFL").get(null);
+      final Object ignore_handler = handler_class.getField("SIG_IGN").get(null);
+      final Method handle = handler_class.getMethod("handle", signal_class);
+      final Method install = signal_class.getMethod("handle", signal_class, handler_class);
+
+      final Object[] previous = new Object[1];
+      final Object handler = Proxy.newProxyInstance(handler_class.getClassLoader(), new Class<?>[] { handler_class }, new InvocationHandler() {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+          if (method.equals(handle)) {
+            task.run();
+            final Object chained = previous[0];
+            if (chained != null && chained != default_handler && chained != ignore_handler) {
+              handle.invoke(chained, args);
+            }
+            return null;
+          } else if (method.getName().equals("equals")) {
+            return proxy == args[0];
+          } else if (method.getName().equals("hashCode")) {
+            return System.identityHashCode(proxy);
+          } else {
+            return "WindowChange";
+          }
+        }
+      });
+
+      previous[0] = install.invoke(null, signal_class.getConstructor(String.class).newInstance("WINCH"), handler);
+    }
+  }
+}
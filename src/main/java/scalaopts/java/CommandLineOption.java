@@ -19,7 +19,6 @@
 
 package scalaopts.java;
 
-import scala.Option;
 import scalaopts.*;
 import scalaopts.common.StringUtil;
 
@@ -151,83 +150,12 @@ public class CommandLineOption<T> {
       return parseAs((CustomOptionParser<T>)optionParser);
     }
 
-    final IOptionTransform<T> optionTransform = new IOptionTransform<T>() {
-      @Override
-      public T apply(String value) {
-        final Option<T> result = optionParser.apply(value);
-        if (result == null || result.isEmpty())
-          return (T)null;
-        else
-          return (T)result.get();
-      }
-    };
-
-    return parseAs(new IOptionParser<T>() {
-      @Override
-      public T getDefaultValue() {
-        return null;
-      }
-
-      @Override
-      public boolean isDefaultValueUsed() {
-        return false;
-      }
-
-      @Override
-      public boolean isAssociatedValueRequired() {
-        return true;
-      }
-
-      @Override
-      public IOptionTransform<T> getTransform() {
-        return optionTransform;
-      }
-
-      @Override
-      public T transform(String value) {
-        return optionTransform.apply(value);
-      }
-    });
+    return parseAs(new ScalaOptionParser<T>(optionParser, null, false, true));
   }
 
   public ICommandLineOption<T> parseAs(final CustomOptionParser<T> optionParser) {
-    final IOptionTransform<T> optionTransform = new IOptionTransform<T>() {
-      @Override
-      public T apply(String value) {
-        final Option<T> result = optionParser.apply(value);
-        if (result == null || result.isEmpty())
-          return (T)null;
-        else
-          return (T)result.get();
-      }
-    };
-
-    return parseAs(new IOptionParser<T>() {
-      @Override
-      public T getDefaultValue() {
-        return (T)(optionParser.optionDefaultValue().isEmpty() ? optionParser.optionDefaultValue().get() : null);
-      }
-
-      @Override
-      public boolean isDefaultValueUsed() {
-        return optionParser.useDefaultValue();
-      }
-
-      @Override
-      public boolean isAssociatedValueRequired() {
-        return optionParser.requiresAssociatedValue();
-      }
-
-      @Override
-      public IOptionTransform<T> getTransform() {
-        return optionTransform;
-      }
-
-      @Override
-      public T transform(String value) {
-        return optionTransform.apply(value);
-      }
-    });
+    final T defaultValue = optionParser.optionDefaultValue().isEmpty() ? null : optionParser.optionDefaultValue().get();
+    return parseAs(new ScalaOptionParser<T>(optionParser, defaultValue, optionParser.useDefaultValue(), optionParser.requiresAssociatedValue()));
   }
 
   public ICommandLineOption<T> parseAs(IOptionParser<T> optionParser) {
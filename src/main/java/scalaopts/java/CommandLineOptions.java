@@ -31,7 +31,7 @@ public class CommandLineOptions {
     return new Parser(Translate.asParser(options));
   }
 
-  public static <T extends Object> IParser build(ParserConfiguration configuration, ICommandLineOption<T>...options) {
+  public static <T extends Object> IParser build(IParserConfiguration configuration, ICommandLineOption<T>...options) {
     return new Parser(Translate.asParser(configuration, options));
   }
 }
@@ -0,0 +1,67 @@
+/*
+  Copyright (C) 2012-2013 the original author or authors.
+
+  See the LICENSE.txt file distributed with this work for additional
+  information regarding copyright ownership.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package scalaopts.java;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What the Java API returns from a parse. Options are looked up by name.
+ *
+ * Values are returned as java.util views and primitives. Each option's values are converted once, the
+ * first time they're asked for, so repeated access doesn't convert anything again. Returned collections
+ * are unmodifiable.
+ */
+public interface IParseResults {
+  boolean isSuccess();
+
+  /** True if the option was found at least once. */
+  boolean isDefined(String name);
+
+  /** Every value given for the option in the order they appeared, or an empty list. */
+  <T> List<T> getValues(String name);
+
+  /** The option's first value, its default value if it wasn't given one, or null. */
+  <T> T getFirst(String name);
+
+  int getInt(String name, int defaultValue);
+  long getLong(String name, long defaultValue);
+  double getDouble(String name, double defaultValue);
+  boolean getBoolean(String name, boolean defaultValue);
+
+  /** Every value given for the option, or null if it wasn't found. */
+  int[] getIntArray(String name);
+  long[] getLongArray(String name);
+  double[] getDoubleArray(String name);
+
+  /** Everything following a "--" terminator or beginning with a lone "-". */
+  List<String> getOperands();
+
+  boolean hasInvalidOptions();
+
+  /** Names of required options that weren't found. */
+  List<String> getMissingRequired();
+
+  /** Names of options that were found without all of their dependencies, along with the missing dependencies. */
+  Map<String, List<String>> getMissingDependencies();
+
+  /** The underlying Scala results. */
+  scalaopts.ParseResults getResults();
+}
@@ -22,5 +22,5 @@ package scalaopts.java;
 /**
  */
 public interface IParser {
-  boolean parse(String...values);
+  IParseResults parse(String...values);
 }
@@ -20,7 +20,12 @@
 package scalaopts.java;
 
 /**
+ * Implemented by every strategy (see scalaopts.ParserStrategy), e.g. new scalaopts.strategy.GNUParserStrategy().
  */
 public interface IParserStrategy {
+  /** GNU-style parsing with long options. The default. */
+  IParserStrategy GNU = new scalaopts.strategy.GNUParserStrategy();
 
+  /** Strict POSIX getopt() style parsing: short options only, stopping at the first operand. */
+  IParserStrategy POSIX = new scalaopts.strategy.POSIXParserStrategy();
 }
@@ -28,8 +28,7 @@ class Parser implements IParser {
     this.parser = parser;
   }
 
-  public boolean parse(String...values) {
-    //TODO: Fix this to use CommandLineOptionResults
-    return parser.parseArguments(Translate.asStringSeq(values)) != null;
+  public IParseResults parse(String...values) {
+    return new JavaParseResults(parser.parseArguments(Translate.asStringSeq(values)));
   }
 }
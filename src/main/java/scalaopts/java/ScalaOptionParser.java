@@ -0,0 +1,81 @@
+/*
+  Copyright (C) 2012-2013 the original author or authors.
+
+  See the LICENSE.txt file distributed with this work for additional
+  information regarding copyright ownership.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package scalaopts.java;
+
+import scala.Option;
+import scalaopts.OptionParser;
+
+/**
+ * An {@link IOptionParser} for one of the Scala {@link OptionParser}s. When the option is built the Scala
+ * parser is used directly instead of going through the transform.
+ */
+@SuppressWarnings("unchecked")
+class ScalaOptionParser<T> implements IOptionParser<T> {
+  private final OptionParser<T> optionParser;
+  private final T defaultValue;
+  private final boolean defaultValueUsed;
+  private final boolean associatedValueRequired;
+  private final IOptionTransform<T> transform = new IOptionTransform<T>() {
+    @Override
+    public T apply(String value) {
+      final Option<T> result = optionParser.apply(value);
+      if (result == null || result.isEmpty())
+        return (T)null;
+      else
+        return result.get();
+    }
+  };
+
+  ScalaOptionParser(OptionParser<T> optionParser, T defaultValue, boolean defaultValueUsed, boolean associatedValueRequired) {
+    this.optionParser = optionParser;
+    this.defaultValue = defaultValue;
+    this.defaultValueUsed = defaultValueUsed;
+    this.associatedValueRequired = associatedValueRequired;
+  }
+
+  public OptionParser<T> getOptionParser() {
+    return optionParser;
+  }
+
+  @Override
+  public T getDefaultValue() {
+    return defaultValue;
+  }
+
+  @Override
+  public boolean isDefaultValueUsed() {
+    return defaultValueUsed;
+  }
+
+  @Override
+  public boolean isAssociatedValueRequired() {
+    return associatedValueRequired;
+  }
+
+  @Override
+  public IOptionTransform<T> getTransform() {
+    return transform;
+  }
+
+  @Override
+  public T transform(String value) {
+    return transform.apply(value);
+  }
+}
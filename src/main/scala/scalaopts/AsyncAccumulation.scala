@@ -0,0 +1,160 @@
+/*
+  Copyright (C) 2012-2013 the original author or authors.
+
+  See the LICENSE.txt file distributed with this work for additional
+  information regarding copyright ownership.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package scalaopts
+
+import _root_.java.util.concurrent.{RejectedExecutionException, CountDownLatch, ArrayBlockingQueue, Executor}
+import _root_.java.util.concurrent.atomic.AtomicBoolean
+import scala.collection.mutable
+import scala.util.control.NonFatal
+
+/**
+ * Runs the callbacks of [[scalaopts.AsyncOptionArgumentAccumulator]]s off the parsing thread.
+ *
+ * Every option gets its own bounded queue for the duration of a parse. Values are queued as soon as
+ * they're parsed and drained by at most one task at a time on the executor, so an option's callbacks
+ * see its values in the order they appeared while different options' callbacks may run concurrently.
+ * When a queue is full the parser blocks until the option's callbacks catch up.
+ *
+ * The parse waits for every queue to drain before it returns. Exceptions thrown by callbacks are
+ * reported in the results as [[scalaopts.ParserError.AccumulatorFailures]].
+ *
+ * @param executor runs the callbacks. Any executor works, including one that runs tasks on the calling thread.
+ * @param queueCapacity number of values per option that may wait for their callback before the parser blocks.
+ */
+class AsyncConfiguration(val executor: Executor, val queueCapacity: Int = AsyncConfiguration.DEFAULT_QUEUE_CAPACITY) {
+  require(queueCapacity > 0, "queueCapacity must be positive")
+}
+
+object AsyncConfiguration {
+  val DEFAULT_QUEUE_CAPACITY = 1024
+}
+
+/**
+ * The queues for a single parse, created by the strategy when the configuration asks for async
+ * accumulators and handed to [[scalaopts.OptionArgumentAccumulator#initialValueAfter]]. Only used by
+ * the parsing thread.
+ */
+final class AsyncAccumulations private[scalaopts](configuration: AsyncConfiguration) {
+  import AsyncAccumulations._
+
+  private[this] val pipelines = mutable.LinkedHashMap[String, Pipeline]()
+
+  /**
+   * The option's queue. An async accumulator queues its values with put() and its done callback with
+   * putDone(). The accumulator's initial values are queued when the queue is created.
+   */
+  private[scalaopts] def pipelineFor(option: CommandLineOptionMapTypedValue, accumulator: AsyncOptionArgumentAccumulator[_]): Pipeline =
+    pipelines.getOrElseUpdate(option.name, {
+      //Initial values go through the queue ahead of anything found on the command line.
+      val pipeline = new Pipeline(option, accumulator, configuration)
+      for (value <- accumulator.initialValues)
+        pipeline.put(value)
+      pipeline
+    })
+
+  /** Marks the end of every queue. Nothing may be queued afterwards. */
+  private[scalaopts] def close(): Unit =
+    for (pipeline <- pipelines.values)
+      pipeline.close()
+
+  /** Waits for every queue to drain after close(). Returns the callback failures by option. */
+  private[scalaopts] def await(): Map[CommandLineOptionMapTypedValue, Seq[Throwable]] =
+    (for {
+      pipeline <- pipelines.values
+      failures = pipeline.await() if !failures.isEmpty
+    } yield pipeline.option -> failures).toMap
+}
+
+private[scalaopts] object AsyncAccumulations {
+  private val NULL = new AnyRef
+  private val DONE = new AnyRef
+  private val END = new AnyRef
+
+  private[scalaopts] final class Pipeline(val option: CommandLineOptionMapTypedValue, accumulator: AsyncOptionArgumentAccumulator[_], configuration: AsyncConfiguration) extends Runnable {
+    private[this] val executor = configuration.executor
+    private[this] val queue = new ArrayBlockingQueue[AnyRef](configuration.queueCapacity)
+    private[this] val scheduled = new AtomicBoolean(false)
+    private[this] val finished = new CountDownLatch(1)
+    private[this] val callback = accumulator.callback.asInstanceOf[Any => Unit]
+
+    //Only touched by the drain task. The latch publishes it to the parsing thread.
+    private[this] var failures: List[Throwable] = Nil
+
+    def put(value: Any): Unit =
+      enqueue(if (value == null) NULL else value.asInstanceOf[AnyRef])
+
+    def putDone(): Unit =
+      enqueue(DONE)
+
+    def close(): Unit =
+      enqueue(END)
+
+    def await(): Seq[Throwable] = {
+      finished.await()
+      failures.reverse
+    }
+
+    private def enqueue(item: AnyRef): Unit = {
+      //Blocks while the queue is full, holding the parser back until the callbacks catch up.
+      queue.put(item)
+      schedule()
+    }
+
+    private def schedule(): Unit =
+      if (scheduled.compareAndSet(false, true)) {
+        try {
+          executor.execute(this)
+        } catch {
+          case _: RejectedExecutionException => run()
+        }
+      }
+
+    def run(): Unit = {
+      var item = queue.poll()
+      while (item != null) {
+        process(item)
+        item = queue.poll()
+      }
+      scheduled.set(false)
+
+      //Something may have been queued after the last poll but before the flag was cleared.
+      if (!queue.isEmpty) {
+        schedule()
+      }
+    }
+
+    private def process(item: AnyRef): Unit =
+      if (item eq END) {
+        finished.countDown()
+      } else if (item eq DONE) {
+        for (done <- accumulator.doneCallback)
+          attempt(done(()))
+      } else {
+        attempt(callback(if (item eq NULL) null else item))
+      }
+
+    private def attempt(f: => Unit): Unit =
+      try {
+        f
+      } catch {
+        case NonFatal(t) => failures = t :: failures
+      }
+  }
+}
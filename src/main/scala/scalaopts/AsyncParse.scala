@@ -0,0 +1,94 @@
+/*
+  Copyright (C) 2012-2013 the original author or authors.
+
+  See the LICENSE.txt file distributed with this work for additional
+  information regarding copyright ownership.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package scalaopts
+
+import scala.concurrent.{Promise, CanAwait, ExecutionContext, Future}
+import scala.concurrent.duration.Duration
+import scala.util.{Failure, Success, Try}
+
+/**
+ * Told about options as their values become final during a parse. Strategies that can tell an option
+ * won't change before they've processed every argument (e.g. it has reached its arity) call
+ * optionDone() right away; everything else is reported once processing is complete.
+ */
+trait ParseListener {
+  /** Called on the parsing thread with the same values [[scalaopts.ParseResults#apply]] would return. */
+  def optionDone(option: CommandLineOptionMapTypedValue, values: Seq[Any]): Unit
+}
+
+/**
+ * A parse running in the background. Completes with the same [[scalaopts.ParseResults]] that
+ * [[scalaopts.Parser#parse]] would return, or with whatever exception it would have thrown.
+ *
+ * Individual options can be waited on with option(). Its future completes as soon as the option's
+ * values are final, which can be well before the rest of the arguments have been parsed. Option
+ * futures complete with the option's values whether or not the parse as a whole succeeds.
+ */
+final class AsyncParse private[scalaopts](options: CommandLineOptionMap) extends Future[ParseResults] {
+  private[this] val promise = Promise[ParseResults]()
+  private[this] val option_promises: Map[String, Promise[Option[Seq[Any]]]] =
+    options.keys.map(_ -> Promise[Option[Seq[Any]]]()).toMap
+
+  private[scalaopts] val listener: ParseListener = new ParseListener {
+    def optionDone(option: CommandLineOptionMapTypedValue, values: Seq[Any]): Unit =
+      option_promises(option.name).trySuccess(Some(values))
+  }
+
+  /**
+   * Completes with the named option's values, as returned by [[scalaopts.ParseResults#apply]], once
+   * no more can be found for it.
+   */
+  def option[T](name: String): Future[Option[Seq[T]]] = option_promises.get(name) match {
+    case Some(p) => p.future.asInstanceOf[Future[Option[Seq[T]]]]
+    case None => Future.successful(None)
+  }
+
+  private[scalaopts] def complete(result: Try[ParseResults]): Unit = {
+    //Options that weren't reported early are completed before the parse as a whole.
+    result match {
+      case Success(results) =>
+        for ((name, p) <- option_promises if !p.isCompleted)
+          p.trySuccess(results(name))
+      case Failure(t) =>
+        for (p <- option_promises.values if !p.isCompleted)
+          p.tryFailure(t)
+    }
+    promise.complete(result)
+  }
+
+  def onComplete[U](f: Try[ParseResults] => U)(implicit executor: ExecutionContext): Unit =
+    promise.future.onComplete(f)
+
+  def isCompleted: Boolean =
+    promise.isCompleted
+
+  def value: Option[Try[ParseResults]] =
+    promise.future.value
+
+  @throws(classOf[Exception])
+  def ready(atMost: Duration)(implicit permit: CanAwait): this.type = {
+    promise.future.ready(atMost)
+    this
+  }
+
+  @throws(classOf[Exception])
+  def result(atMost: Duration)(implicit permit: CanAwait): ParseResults =
+    promise.future.result(atMost)
+}
@@ -178,6 +178,10 @@ sealed trait TypedCommandLineOption[+A, +B, +C] extends MinimumTypedCommandLineO
   def parser:       OptionParser[A]
   def accumulator:  OptionArgumentAccumulator[A, B, C]
 
+  if (!isArityUnbounded && accumulator.accumulatesAcrossOccurrences) {
+    throw new IllegalArgumentException("arity must be specified as unbounded for an option accumulated across its occurrences (e.g. with a PropertyMapAccumulator). Option: " + name)
+  }
+
   def apply(value: String): Option[A] =
     parser(value)
 }
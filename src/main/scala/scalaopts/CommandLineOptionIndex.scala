@@ -0,0 +1,270 @@
+/*
+  Copyright (C) 2012-2013 the original author or authors.
+
+  See the LICENSE.txt file distributed with this work for additional
+  information regarding copyright ownership.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package scalaopts
+
+/**
+ * A [[scalaopts.CommandLineOptionMap]] that also carries a precomputed lookup index over every
+ * option's long and short names.
+ *
+ * Each option is assigned a dense id in map iteration order (or in the order it was written in when
+ * loaded from a [[scalaopts.SpecificationSnapshot]]). Long names (and any short names that
+ * aren't a single character) are case-folded into an open-addressing hash table. Single character
+ * short names are folded and stored in a direct-indexed char table. Lookups are case-insensitive
+ * with the same semantics as [[java.lang.String#equalsIgnoreCase]] and resolve ties the same way a
+ * linear `find` over the map would (first option in iteration order wins).
+ *
+ * Lookups return the option's id or [[scalaopts.CommandLineOptionIndex.NOT_FOUND]].
+ *
+ * Abbreviated long names are resolved through a [[scalaopts.LongNameTrie]] that's only built the first
+ * time a long name isn't found as given.
+ */
+class CommandLineOptionIndex private(map_of: () => CommandLineOptionMap, entries: Array[CommandLineOptionMapValue]) extends Map[CommandLineOptionMapKey, CommandLineOptionMapValue] {
+  import CommandLineOptionIndex._
+
+  //Only needed to add or remove options. Lookups and iteration use the index itself.
+  lazy val map: CommandLineOptionMap = map_of()
+
+  private[this] val option_names = new NameTable(entries.length)
+  private[this] val long_names = new NameTable(entries.map(_._1.longNames.length).sum)
+  private[this] val short_names = new NameTable(entries.map(_._1.shortNames.count(_.length != 1)).sum)
+  private[this] val short_chars: Array[Int] = {
+    val chars = for (value <- entries; name <- value._1.shortNames if name.length == 1) yield foldCase(name.charAt(0))
+    val table = new Array[Int](if (chars.isEmpty) 0 else chars.max + 1)
+    _root_.java.util.Arrays.fill(table, NOT_FOUND)
+    table
+  }
+
+  for (id <- 0 until entries.length) {
+    val opt = entries(id)._1
+    option_names.put(opt.name, id)
+    for (name <- opt.longNames)
+      long_names.put(name, id)
+    for (name <- opt.shortNames) {
+      if (name.length == 1) {
+        val c = foldCase(name.charAt(0))
+        if (short_chars(c) == NOT_FOUND) {
+          short_chars(c) = id
+        }
+      } else {
+        short_names.put(name, id)
+      }
+    }
+  }
+
+  def iterator = entries.iterator.map(entry => entry._1.name -> entry)
+  def get(key: CommandLineOptionMapKey) = valueOf(idOfOption(key))
+  def -(key: CommandLineOptionMapKey) = map - key
+  def +[B1 >: CommandLineOptionMapValue](kv: (CommandLineOptionMapKey, B1)) = map + kv
+  override def size = entries.length
+
+  /** Returns the map value (typed option and its initial accumulator value) for the given id. */
+  def entry(id: Int): CommandLineOptionMapValue = entries(id)
+
+  /** Returns the typed option for the given id. */
+  def option(id: Int): CommandLineOptionMapTypedValue = entries(id)._1
+
+  /** Looks up an option by its name (as opposed to one of its long or short names). Case-sensitive. */
+  def idOfOption(name: String): Int = {
+    val id = option_names.get(name, 0, name.length)
+    if (id == NOT_FOUND || entries(id)._1.name == name) id else idOfOptionNamedExactly(name)
+  }
+
+  //Names that only differ by case share a slot in the name table, so the others are searched for.
+  private def idOfOptionNamedExactly(name: String): Int = {
+    var id = 0
+    while (id < entries.length) {
+      if (entries(id)._1.name == name) {
+        return id
+      }
+      id += 1
+    }
+    NOT_FOUND
+  }
+
+  /** Looks up an option by its name ignoring case. */
+  def idOfOptionIgnoringCase(name: String): Int =
+    option_names.get(name, 0, name.length)
+
+  def idOfLongName(name: String): Int =
+    idOfLongName(name, 0, name.length)
+
+  /** Looks up the long name found in the region [from, until) of the given string without copying it. */
+  def idOfLongName(s: String, from: Int, until: Int): Int =
+    long_names.get(s, from, until)
+
+  def idOfShortName(name: String): Int =
+    if (name.length == 1) idOfShortName(name.charAt(0)) else short_names.get(name, 0, name.length)
+
+  def idOfShortName(c: Char): Int = {
+    val folded = foldCase(c)
+    if (folded < short_chars.length) short_chars(folded) else NOT_FOUND
+  }
+
+  def idOfName(name: String): Int =
+    idOfName(name, 0, name.length)
+
+  /** Looks up a long or short name found in the region [from, until) of the given string without copying it. */
+  def idOfName(s: String, from: Int, until: Int): Int = {
+    val long_id = idOfLongName(s, from, until)
+    val short_id = if (until - from == 1) idOfShortName(s.charAt(from)) else short_names.get(s, from, until)
+    if (long_id == NOT_FOUND || (short_id != NOT_FOUND && short_id < long_id)) short_id else long_id
+  }
+
+  /** The trie of long names for resolving abbreviations and suggesting names. */
+  lazy val longNameTrie: LongNameTrie = LongNameTrie(this)
+
+  /**
+   * Maps each single character short name (case-sensitively) to (id << 1) | TAKES_ARGUMENT, or
+   * NOT_FOUND. An option takes an argument unless it's a flag without any values. The first option in
+   * id order wins if a character is used more than once. Built the first time it's needed (see
+   * [[scalaopts.strategy.POSIXParserStrategy]]) and kept for as long as the index is.
+   */
+  private[scalaopts] lazy val shortNameTable: Array[Int] = {
+    val names = for (id <- 0 until entries.length; name <- entries(id)._1.shortNames if name.length == 1) yield (name.charAt(0), id)
+    val table = new Array[Int](if (names.isEmpty) 0 else names.map(_._1).max + 1)
+    _root_.java.util.Arrays.fill(table, NOT_FOUND)
+    for ((c, id) <- names if table(c) == NOT_FOUND) {
+      val opt = entries(id)._1
+      table(c) = (id << 1) | (if (opt.isFlag && opt.maxNumberOfArguments == 0) 0 else TAKES_ARGUMENT)
+    }
+    table
+  }
+
+  /**
+   * Looks up the long name found in the region [from, until) of the given string or, failing that, the
+   * only option with a long name beginning with it (as getopt_long() does). Returns
+   * [[scalaopts.CommandLineOptionIndex.AMBIGUOUS]] if more than one option has such a name.
+   */
+  def idOfLongNameOrPrefix(s: String, from: Int, until: Int): Int = {
+    val id = idOfLongName(s, from, until)
+    if (id != NOT_FOUND) id else longNameTrie.idOfPrefix(s, from, until)
+  }
+
+  def findByLongName(name: String): Option[CommandLineOptionMapValue] = valueOf(idOfLongName(name))
+  def findByShortName(name: String): Option[CommandLineOptionMapValue] = valueOf(idOfShortName(name))
+  def findByName(name: String): Option[CommandLineOptionMapValue] = valueOf(idOfName(name))
+
+  private def valueOf(id: Int): Option[CommandLineOptionMapValue] =
+    if (id != NOT_FOUND) Some(entries(id)) else None
+}
+
+object CommandLineOptionIndex {
+  val NOT_FOUND = -1
+
+  /** Set in a [[scalaopts.CommandLineOptionIndex#shortNameTable]] entry if the option takes an argument. */
+  private[scalaopts] val TAKES_ARGUMENT = 1
+
+  /** Returned for an abbreviation shared by more than one option. */
+  val AMBIGUOUS = -2
+
+  def apply(options: CommandLineOptionMap): CommandLineOptionIndex = options match {
+    case index: CommandLineOptionIndex => index
+    case _ => new CommandLineOptionIndex(() => options, options.values.toArray)
+  }
+
+  /** Indexes map values whose ids are their positions in the given array. */
+  private[scalaopts] def inIdOrder(entries: Array[CommandLineOptionMapValue]): CommandLineOptionIndex =
+    new CommandLineOptionIndex(() => entries.map(entry => entry._1.name -> entry).toMap, entries)
+
+  /** Case-folds a character such that foldCase(a) == foldCase(b) exactly when a and b are equal ignoring case. */
+  @inline def foldCase(c: Char): Char =
+    Character.toLowerCase(Character.toUpperCase(c))
+
+  /** Case-folds every character, returning the same string if none of them change. */
+  private[scalaopts] def foldCase(s: String): String = {
+    var i = 0
+    while (i < s.length && foldCase(s.charAt(i)) == s.charAt(i)) {
+      i += 1
+    }
+    if (i == s.length) {
+      s
+    } else {
+      val chars = s.toCharArray
+      while (i < chars.length) {
+        chars(i) = foldCase(chars(i))
+        i += 1
+      }
+      new String(chars)
+    }
+  }
+
+  /** Open-addressing (linear probing) table from case-folded names to ids. */
+  private final class NameTable(expected: Int) {
+    private[this] val capacity = Integer.highestOneBit(math.max(expected, 1) * 2) << 1
+    private[this] val mask = capacity - 1
+    private[this] val keys = new Array[String](capacity)
+    private[this] val ids = new Array[Int](capacity)
+    //Nothing longer can be in the table, so (e.g.) option values aren't hashed just to find that out.
+    private[this] var longest = 0
+
+    private def hash(s: String, from: Int, until: Int): Int = {
+      var h = 0
+      var i = from
+      while (i < until) {
+        h = 31 * h + foldCase(s.charAt(i))
+        i += 1
+      }
+      h ^ (h >>> 16)
+    }
+
+    private def matches(key: String, s: String, from: Int, until: Int): Boolean = {
+      if (key.length != until - from) {
+        return false
+      }
+      var i = 0
+      while (i < key.length) {
+        if (key.charAt(i) != foldCase(s.charAt(from + i))) {
+          return false
+        }
+        i += 1
+      }
+      true
+    }
+
+    /** Adds the name unless an equal (ignoring case) name is already present. */
+    def put(name: String, id: Int): Unit = {
+      val folded = foldCase(name)
+      var slot = hash(name, 0, name.length) & mask
+      while (keys(slot) != null) {
+        if (keys(slot) == folded) {
+          return
+        }
+        slot = (slot + 1) & mask
+      }
+      keys(slot) = folded
+      ids(slot) = id
+      longest = math.max(longest, folded.length)
+    }
+
+    def get(s: String, from: Int, until: Int): Int = {
+      if (until - from > longest) {
+        return NOT_FOUND
+      }
+      var slot = hash(s, from, until) & mask
+      while (keys(slot) != null) {
+        if (matches(keys(slot), s, from, until)) {
+          return ids(slot)
+        }
+        slot = (slot + 1) & mask
+      }
+      NOT_FOUND
+    }
+  }
+}
@@ -4,8 +4,12 @@ import scala.volatile
 import scala.collection.mutable
 
 /**
+ * What a [[scalaopts.ParserStrategy]] found in the arguments.
+ *
+ * @param operandsIndex Index of the first operand (e.g. the argument following "--") in the arguments
+ *                      that were processed or -1 if option processing didn't stop at an operand.
  */
-case class CommandLineOptionResults(val results: CommandLineOptionResultsMap, val errors: CommandLineOptionParseErrors)
+case class CommandLineOptionResults(val results: CommandLineOptionResultsMap, val errors: CommandLineOptionParseErrors, val operandsIndex: Int = -1)
 
 //class CommandLineOptionResults[TKey >: CommandLineOptionResultKey, +TValue >: CommandLineOptionResultValue](
 //  private[this] val results: CommandLineOptionResultsMap,
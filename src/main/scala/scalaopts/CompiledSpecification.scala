@@ -0,0 +1,178 @@
+/*
+  Copyright (C) 2012-2013 the original author or authors.
+
+  See the LICENSE.txt file distributed with this work for additional
+  information regarding copyright ownership.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package scalaopts
+
+import scala.concurrent.ExecutionContext
+import scala.concurrent.forkjoin.{ForkJoinTask, RecursiveAction, ForkJoinPool}
+import scala.util.Try
+import common.StringUtil
+
+/**
+ * A specification that has been validated against its parser strategy with its lookup structures,
+ * dependency data and default values frozen. Obtained via [[scalaopts.Parser#compile]].
+ *
+ * Instances are immutable and safe to share between threads. Parsing only does per-argument work.
+ */
+final class CompiledSpecification private[scalaopts](val configuration: ParserConfiguration, val options: CommandLineOptionIndex, validated: Boolean = false) {
+  //Snapshots (see scalaopts.SpecificationSnapshot) were validated against the same strategy when written.
+  if (!validated && !configuration.strategy.validateOptions(options)) {
+    throw new IllegalArgumentException("The provided options do not meet the parser strategy's requirements.")
+  }
+
+  //Required options and dependencies as bitmasks over option ids.
+  private[this] val validation = new ValidationMasks(options)
+
+  /** Returns the default value for the named option if one was defined. */
+  def defaultValue[T](name: String): Option[T] = {
+    val id = options.idOfOption(name)
+    (if (id != CommandLineOptionIndex.NOT_FOUND) options.option(id).defaultValue else None).asInstanceOf[Option[T]]
+  }
+
+  def parse(values: String*): ParseResults = parseArguments(values)
+
+  /**
+   * Parses every command line, spreading the work over the given fork/join pool. Results are returned
+   * in the same order as the command lines. Blocks until every command line has been parsed.
+   */
+  def parseAll(command_lines: Iterable[Seq[String]], pool: ForkJoinPool = CompiledSpecification.defaultPool): IndexedSeq[ParseResults] = {
+    val inputs = command_lines.toArray
+    val results = new Array[ParseResults](inputs.length)
+    if (inputs.length > 0) {
+      //Enough chunks per worker for stealing to even out command lines that take longer than others.
+      val threshold = math.max(1, inputs.length / (pool.getParallelism * 8))
+      pool.invoke(new CompiledSpecification.ParseRange(this, inputs, results, 0, inputs.length, threshold))
+    }
+    results
+  }
+
+  /**
+   * Parses the arguments on the given execution context and returns immediately. See
+   * [[scalaopts.AsyncParse]] for waiting on the results or on individual options.
+   */
+  def parseArgumentsAsync(values: Seq[String], executor: ExecutionContext = ExecutionContext.global): AsyncParse = {
+    val parse = new AsyncParse(options)
+    executor.execute(new Runnable {
+      def run(): Unit =
+        parse.complete(Try(parseArguments(values, parse.listener)))
+    })
+    parse
+  }
+
+  def parseArguments(values: Seq[String]): ParseResults =
+    parseArguments(values, null)
+
+  /** Parses the arguments and lays the results out by option id. */
+  def parseSlots(values: Seq[String]): SlotResults = {
+    val results = parseArguments(values)
+    new SlotResults(results, options, results.optionResults.asInstanceOf[OptionSlotMap[_]].slots)
+  }
+
+  /**
+   * Resolves the ids of the named options for use with [[scalaopts.SlotResults]]. A name matches an
+   * option with that name or, failing that, an option whose name is the same once it's made a valid
+   * identifier (e.g. "dry_run" matches "dry-run").
+   *
+   * @throws IllegalArgumentException if any name doesn't match an option.
+   */
+  def slotIds(names: Seq[String]): Array[Int] = {
+    def idOf(name: String): Int = {
+      val id = options.idOfOption(name)
+      if (id != CommandLineOptionIndex.NOT_FOUND) id
+      else (0 until options.size).find(id => StringUtil.toValidIdentifier(options.option(id).name) == name).getOrElse(CommandLineOptionIndex.NOT_FOUND)
+    }
+
+    val ids = names.map(idOf)
+    val unknown = for ((name, id) <- names zip ids if id == CommandLineOptionIndex.NOT_FOUND) yield name
+    if (!unknown.isEmpty) {
+      throw new IllegalArgumentException("The following names do not match any option: " + (unknown mkString ", "))
+    }
+    ids.toArray
+  }
+
+  private def parseArguments(values: Seq[String], listener: ParseListener): ParseResults = {
+    //Strategies walk the arguments in place, so only copy them if they can't be indexed.
+    val arguments = values match {
+      case _ if configuration.expandResponseFiles && ResponseFileArguments.hasResponseFile(values) => new ResponseFileArguments(values)
+      case indexed: IndexedSeq[String @unchecked] => indexed
+      case _ => values.toIndexedSeq
+    }
+
+    val processing = configuration.strategy.processOptions(arguments, options, configuration, listener)
+
+    //Results are laid out by option id. Strategies that fill slots (see scalaopts.OptionSlotMap) hand
+    //theirs over as they are; anything else is laid out once here. Either way something like:
+    //  size -> Some(List(List(1, 2, 3)))
+    //is read as:
+    //  size -> List(List(1, 2, 3))
+    val slots = processing.results match {
+      case filled: OptionSlotMap[_] if filled.options eq options => filled.slots
+      case results => OptionSlotMap.slotsOf(options, results.map(m => m._1 -> m._2.get))
+    }
+    val processed_results = OptionSlotMap.parseResults(options, slots)
+
+    //Post-process results (validate required options, etc.)
+
+    val errors: CommandLineOptionParseErrors = processing.errors
+
+    val any_standard_parsing_errors = !errors.isEmpty
+
+    val seen = validation.seen(slots)
+
+    //Are there any required options that are not present?
+    val all_missing_required = validation.missingRequired(seen)
+    val any_missing_required = !all_missing_required.isEmpty
+    val errors_1 = if (any_missing_required) errors.updated(ParserError.MissingRequired, all_missing_required) else errors
+
+    //Find options that are missing dependencies
+    val all_missing = validation.missingDependencies(seen)
+    val any_missing_dependencies = !all_missing.isEmpty
+    val errors_2 = if (any_missing_dependencies) errors_1.updated(ParserError.MissingDependencies, all_missing.toMap) else errors_1
+
+    //Determine if parsing was overall successful or not.
+    val success = !any_standard_parsing_errors && !any_missing_required && !any_missing_dependencies
+
+    //Send back the results
+    new ParseResults(success, processed_results, errors_2, options, arguments, processing.operandsIndex)
+  }
+}
+
+object CompiledSpecification {
+  /** Pool used by parseAll() unless one is given. Sized to the number of available processors. */
+  lazy val defaultPool: ForkJoinPool = new ForkJoinPool()
+
+  /** Parses inputs [from, until) into the same slots of results, splitting the range until it's below the threshold. */
+  private final class ParseRange(specification: CompiledSpecification, inputs: Array[Seq[String]], results: Array[ParseResults], from: Int, until: Int, threshold: Int) extends RecursiveAction {
+    protected def compute(): Unit = {
+      if (until - from <= threshold) {
+        var i = from
+        while (i < until) {
+          results(i) = specification.parseArguments(inputs(i))
+          i += 1
+        }
+      } else {
+        val middle = (from + until) >>> 1
+        ForkJoinTask.invokeAll(
+          new ParseRange(specification, inputs, results, from, middle, threshold),
+          new ParseRange(specification, inputs, results, middle, until, threshold)
+        )
+      }
+    }
+  }
+}
@@ -0,0 +1,45 @@
+/*
+  Copyright (C) 2012-2013 the original author or authors.
+
+  See the LICENSE.txt file distributed with this work for additional
+  information regarding copyright ownership.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package scalaopts
+
+import common.Enum
+
+/**
+ * Levels for the parser's diagnostic logging. A logger configured at a given level emits messages
+ * at that level and every more severe level. [[scalaopts.LogLevel.Off]] emits nothing.
+ */
+object LogLevel extends Enum {
+  sealed case class EnumVal private[LogLevel](severity: Int, title: String) extends Value
+
+  override protected def nameOf(value: EnumVal): String =
+    value.title.capitalize
+
+  val Off     = EnumVal(0, "off")
+  val Severe  = EnumVal(1, "severe")
+  val Warning = EnumVal(2, "warning")
+  val Info    = EnumVal(3, "info")
+  val Config  = EnumVal(4, "config")
+  val Fine    = EnumVal(5, "fine")
+  val Finer   = EnumVal(6, "finer")
+  val Finest  = EnumVal(7, "finest")
+
+  def fromTitle(title: String): Option[EnumVal] =
+    values.find(_.title.equalsIgnoreCase(title.trim))
+}
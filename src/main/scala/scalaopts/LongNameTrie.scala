@@ -0,0 +1,240 @@
+/*
+  Copyright (C) 2012-2013 the original author or authors.
+
+  See the LICENSE.txt file distributed with this work for additional
+  information regarding copyright ownership.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package scalaopts
+
+import scala.annotation.tailrec
+import scala.collection.mutable.ArrayBuffer
+import CommandLineOptionIndex.{NOT_FOUND, AMBIGUOUS, foldCase}
+
+/**
+ * A radix trie over a specification's case-folded long names, used to resolve abbreviated long
+ * options (e.g. "--verb" for "--verbose") and to suggest names close to ones that weren't recognized.
+ *
+ * Every node knows the one option all the names below it belong to (or that there's more than one),
+ * so resolving a prefix only walks as many characters as the prefix has. Suggestions walk the trie
+ * computing edit distances a row per character and skip any subtree that can't come within the
+ * maximum distance.
+ *
+ * Built from a [[scalaopts.CommandLineOptionIndex]] the first time a long name isn't found as given.
+ */
+final class LongNameTrie private(root: LongNameTrie.Node, longest: Int) {
+  import LongNameTrie._
+
+  /**
+   * Returns the id of the option with the given long name or, failing that, of the only option with
+   * a long name beginning with the region [from, until) of s. Returns
+   * [[scalaopts.CommandLineOptionIndex.AMBIGUOUS]] if more than one option has such a name.
+   */
+  def idOfPrefix(s: String, from: Int, until: Int): Int = {
+    val node = if (root != null && from < until) find(root, s, from, until) else null
+    if (node == null) NOT_FOUND
+    else if (node.id != NOT_FOUND && node.depth == until - from) node.id
+    else node.owner
+  }
+
+  def idOfPrefix(prefix: String): Int =
+    idOfPrefix(prefix, 0, prefix.length)
+
+  /** The long names beginning with the given prefix, in order ignoring case. */
+  def namesWithPrefix(prefix: String): Seq[String] = {
+    val names = new ArrayBuffer[String]()
+    def collect(node: Node): Unit = {
+      if (node.id != NOT_FOUND) {
+        names += node.name
+      }
+      node.children.foreach(collect)
+    }
+    val node = if (root != null && !prefix.isEmpty) find(root, prefix, 0, prefix.length) else null
+    if (node != null) {
+      collect(node)
+    }
+    names
+  }
+
+  /**
+   * The long names at most max_distance edits (insertions, deletions or substitutions, ignoring case)
+   * away from the given name, closest first. At most limit names are returned.
+   */
+  def suggestions(name: String, max_distance: Int, limit: Int = Int.MaxValue): Seq[String] = {
+    if (root == null || max_distance < 0) {
+      return Nil
+    }
+
+    val target = foldCase(name)
+    val n = target.length
+    val too_far = max_distance + 1
+    val found = new ArrayBuffer[(Int, String)]()
+
+    //rows(d)(j) is the distance between the first d characters of the path walked and the first j
+    //characters of the target. Cells further than max_distance from the diagonal can't be within
+    //max_distance, so only the band around it is computed. Rows are reused as the walk backtracks.
+    val rows = Array.ofDim[Int](longest + 1, n + 1)
+    for (j <- 0 to math.min(n, max_distance))
+      rows(0)(j) = j
+
+    //Computes rows(d + 1) from rows(d) for c, the next character of the path. Returns false if every
+    //name continuing with c is further than max_distance away.
+    def extend(d: Int, c: Char): Boolean = {
+      val previous = rows(d)
+      val previous_lo = math.max(0, d - max_distance)
+      val previous_hi = math.min(n, d + max_distance)
+      val current = rows(d + 1)
+      val lo = math.max(0, d + 1 - max_distance)
+      val hi = math.min(n, d + 1 + max_distance)
+      var smallest = too_far
+      var j = lo
+      while (j <= hi) {
+        var distance = too_far
+        if (j == 0) {
+          distance = d + 1
+        } else {
+          if (j - 1 >= previous_lo) distance = previous(j - 1) + (if (target.charAt(j - 1) == c) 0 else 1)
+          if (j <= previous_hi) distance = math.min(distance, previous(j) + 1)
+          if (j - 1 >= lo) distance = math.min(distance, current(j - 1) + 1)
+        }
+        current(j) = math.min(distance, too_far)
+        smallest = math.min(smallest, current(j))
+        j += 1
+      }
+      smallest <= max_distance
+    }
+
+    //Walks the node's label from position start, where the path is depth characters long. Children are
+    //only visited if their first character keeps them within max_distance, which is decided from the
+    //node's own table of first characters.
+    def visit(node: Node, start: Int, depth: Int): Unit = {
+      var d = depth
+      var i = start
+      while (i < node.label.length) {
+        if (!extend(d, node.label.charAt(i))) {
+          return
+        }
+        d += 1
+        i += 1
+      }
+      if (node.id != NOT_FOUND && math.abs(d - n) <= max_distance && rows(d)(n) <= max_distance) {
+        found += rows(d)(n) -> node.name
+      }
+      var child = 0
+      while (child < node.firsts.length) {
+        if (extend(d, node.firsts(child))) {
+          visit(node.children(child), 1, d + 1)
+        }
+        child += 1
+      }
+    }
+
+    visit(root, 0, 0)
+    found.sortBy(_._1).take(limit).map(_._2)
+  }
+}
+
+object LongNameTrie {
+  private val NO_CHILDREN = new Array[Node](0)
+
+  /**
+   * @param label The characters leading here from the parent node.
+   * @param depth The length of the names below this node that the path to here covers.
+   * @param id The option with the name ending here, or NOT_FOUND.
+   * @param name That name as it was given.
+   * @param owner The option every name below this node belongs to, or AMBIGUOUS.
+   */
+  private final class Node(val label: String, val depth: Int, val id: Int, val name: String, val firsts: Array[Char], val children: Array[Node], val owner: Int)
+
+  /** Indexes every option's long names. Names that only differ by case belong to the first option with one. */
+  def apply(options: CommandLineOptionIndex): LongNameTrie = {
+    val keys = new ArrayBuffer[Key]()
+    for (id <- 0 until options.size; name <- options.option(id).longNames)
+      keys += new Key(foldCase(name), id, name)
+
+    //Sorting is stable, so the first option with a name stays first among names that are the same ignoring case.
+    val sorted = keys.toArray
+    _root_.java.util.Arrays.sort(sorted.asInstanceOf[Array[Object]])
+    val unique = sorted.indices.filter(i => i == 0 || sorted(i).folded != sorted(i - 1).folded).map(sorted).toArray
+    if (unique.isEmpty) new LongNameTrie(null, 0)
+    else new LongNameTrie(build(unique, 0, unique.length, 0), unique.map(_.folded.length).max)
+  }
+
+  private final class Key(val folded: String, val id: Int, val name: String) extends Comparable[Key] {
+    def compareTo(other: Key): Int = folded.compareTo(other.folded)
+  }
+
+  //Builds the node for keys [lo, hi), which are sorted and share their first depth characters.
+  private def build(keys: Array[Key], lo: Int, hi: Int, depth: Int): Node = {
+    //The keys are sorted, so what the first and last have in common all of them have in common.
+    val first = keys(lo).folded
+    val last = keys(hi - 1).folded
+    var end = depth
+    while (end < first.length && end < last.length && first.charAt(end) == last.charAt(end)) {
+      end += 1
+    }
+
+    //The key ending here (if any) sorts first.
+    val terminal = first.length == end
+    val children = new ArrayBuffer[Node]()
+    var i = if (terminal) lo + 1 else lo
+    while (i < hi) {
+      val c = keys(i).folded.charAt(end)
+      var j = i + 1
+      while (j < hi && keys(j).folded.charAt(end) == c) {
+        j += 1
+      }
+      children += build(keys, i, j, end)
+      i = j
+    }
+
+    val id = if (terminal) keys(lo).id else NOT_FOUND
+    var owner = id
+    for (child <- children) {
+      owner =
+        if (owner == NOT_FOUND || owner == child.owner) child.owner
+        else AMBIGUOUS
+    }
+
+    val firsts = new Array[Char](children.length)
+    for (i <- 0 until children.length)
+      firsts(i) = children(i).label.charAt(0)
+    new Node(first.substring(depth, end), end, id, if (terminal) keys(lo).name else null, firsts, if (children.isEmpty) NO_CHILDREN else children.toArray, owner)
+  }
+
+  //The deepest node whose path covers the region [pos, until) of s, or null if no name begins with it.
+  @tailrec
+  private def find(node: Node, s: String, pos: Int, until: Int): Node = {
+    val label = node.label
+    var p = pos
+    var i = 0
+    while (i < label.length) {
+      if (p == until) {
+        return node
+      }
+      if (foldCase(s.charAt(p)) != label.charAt(i)) {
+        return null
+      }
+      p += 1
+      i += 1
+    }
+    if (p == until) {
+      node
+    } else {
+      val child = _root_.java.util.Arrays.binarySearch(node.firsts, foldCase(s.charAt(p)))
+      if (child < 0) null else find(node.children(child), s, p, until)
+    }
+  }
+}
@@ -20,6 +20,7 @@
 package scalaopts
 
 import common._
+import scala.collection.mutable.ArrayBuilder
 
 /**
  * Defines common accumulator function types for option arguments.
@@ -44,6 +45,46 @@ sealed trait OptionArgumentAccumulator[+A, +B, +C] {
   def initialValue: B
   def done[Y >: B](accumulatedValues: Y): C
   def accumulate[X >: A, Y >: B, Z >: C](value: X, accumulator: Y): Z
+
+  /**
+   * The accumulation to start an occurrence of the option with. previous holds the option's results so
+   * far in the parse, most recent first (null if there are none), and queues the parse's queues for async
+   * callbacks (null unless the configuration asks for them).
+   */
+  def initialValueAfter(option: CommandLineOptionMapTypedValue, previous: List[Any], queues: AsyncAccumulations): Any =
+    initialValue
+
+  /**
+   * Called once a full parse (not an incremental one) has finished for an option that wasn't found,
+   * with the same queues as initialValueAfter().
+   */
+  def notFound(option: CommandLineOptionMapTypedValue, queues: AsyncAccumulations): Unit = ()
+
+  /**
+   * True if every occurrence of the option carries on with the accumulation of the one before it (see
+   * initialValueAfter()), in which case the option has a single result instead of one per occurrence.
+   * Occurrences can't be counted by their results then, so such options must have unbounded arity.
+   */
+  def accumulatesAcrossOccurrences: Boolean = false
+
+  /**
+   * Parses the value that begins at from in s (e.g. after the "-o" in "-ofoo") with the given parser
+   * and accumulates the result. Returns the revised accumulation.
+   *
+   * Strategies hand every value over through this, so accumulators that can take a value without the
+   * intermediate string or boxed result override it.
+   */
+  def accumulateFrom(parser: OptionParser[_], s: String, from: Int, accumulator: Any): Any = {
+    val result = parser(if (from == 0) s else s.substring(from))
+    if (result.isDefined) accumulate(result.get, accumulator) else accumulator
+  }
+
+  /**
+   * Returns an accumulation that can be added to without affecting the given one. Strategies call this
+   * where an accumulation can be resumed more than once. Only accumulations that are modified in place
+   * need to be copied.
+   */
+  def copy(accumulator: Any): Any = accumulator
 }
 
 class CustomOptionArgumentAccumulator[A, B, C](val initialValue: B, val fnAccumulator: FnAccumulator[A, B], val onDone: FnAccumulatorDone[B, C]) extends OptionArgumentAccumulator[A, B, C] {
@@ -51,16 +92,50 @@ class CustomOptionArgumentAccumulator[A, B, C](val initialValue: B, val fnAccumu
   def done[Y >: B](accumulatedValues: Y): C = onDone(accumulatedValues.asInstanceOf[B])
 }
 
+/**
+ * Hands each option argument value to a callback instead of collecting it.
+ *
+ * By default the callbacks run on the parsing thread as values are found. If the parser configuration
+ * defines [[scalaopts.ParserConfiguration#asyncAccumulators]] the values are queued instead and the
+ * callbacks run on its executor (see [[scalaopts.AsyncConfiguration]]). Either way the initial values
+ * are handed to the callback once per parse, ahead of the first value found on the command line or,
+ * if the option isn't found, once the parse has finished.
+ */
 class AsyncOptionArgumentAccumulator[A](val initialValues: Seq[A] = List(), val callback: FnAsyncAccumulatorCallback[A], val doneCallback: Option[FnAsyncAccumulatorDone] = None) extends OptionArgumentAccumulator[A, Unit, Unit] {
-  def initialValue: Unit = {
-    for (value <- initialValues)
-      callback(value)
-  }
-  def accumulate[X >: A, Y >: Unit, Z >: Unit](value: X, accumulator: Y) = callback(value.asInstanceOf[A])
-  def done[Unit](accumulatedValues: Unit) =
-    if (doneCallback.isDefined) {
-      doneCallback.get()
+  def initialValue: Unit = ()
+
+  //When the values are queued, the option's queue is the accumulation.
+  override def initialValueAfter(option: CommandLineOptionMapTypedValue, previous: List[Any], queues: AsyncAccumulations): Any =
+    if (queues != null) {
+      queues.pipelineFor(option, this)
+    } else {
+      if (previous eq null) {
+        for (value <- initialValues)
+          callback(value)
+      }
+      initialValue
     }
+
+  override def notFound(option: CommandLineOptionMapTypedValue, queues: AsyncAccumulations): Unit =
+    if (!initialValues.isEmpty) {
+      initialValueAfter(option, null, queues)
+    }
+
+  def accumulate[X >: A, Y >: Unit, Z >: Unit](value: X, accumulator: Y): Z = {
+    accumulator match {
+      case pipeline: AsyncAccumulations.Pipeline => pipeline.put(value)
+      case _ => callback(value.asInstanceOf[A])
+    }
+    accumulator.asInstanceOf[Z]
+  }
+
+  def done[Y >: Unit](accumulatedValues: Y): Unit = accumulatedValues match {
+    case pipeline: AsyncAccumulations.Pipeline => pipeline.putDone()
+    case _ =>
+      if (doneCallback.isDefined) {
+        doneCallback.get()
+      }
+  }
 }
 
 class ListOptionArgumentAccumulator[+A](val initialValues: Seq[A] = List()) extends OptionArgumentAccumulator[A, List[A], List[A]] {
@@ -69,6 +144,169 @@ class ListOptionArgumentAccumulator[+A](val initialValues: Seq[A] = List()) exte
   def done[Y >: List[A]](accumulatedValues: Y): List[A] = accumulatedValues.asInstanceOf[List[A]].reverse
 }
 
+/**
+ * Holds option argument values in a growable primitive array so that numeric values aren't boxed.
+ *
+ * The initial value is the array of initial values, which is never modified. The first value
+ * accumulated copies it into a new builder that is appended to in place for the rest of the
+ * option's arguments. Parsers that can produce primitive values (e.g. [[scalaopts.IntValueParser]])
+ * write straight into the builder from accumulateFrom().
+ */
+sealed abstract class PrimitiveArrayOptionArgumentAccumulator[A, C <: AnyRef] extends OptionArgumentAccumulator[A, AnyRef, C] {
+  def initialValues: C
+  def initialValue: AnyRef = initialValues
+}
+
+class IntArrayOptionArgumentAccumulator(val initialValues: Array[Int] = Array()) extends PrimitiveArrayOptionArgumentAccumulator[Int, Array[Int]] {
+  private def builderFor(accumulator: Any): ArrayBuilder.ofInt = accumulator match {
+    case builder: ArrayBuilder.ofInt => builder
+    case _ =>
+      val builder = new ArrayBuilder.ofInt
+      builder ++= initialValues
+      builder
+  }
+
+  def accumulate[X >: Int, Y >: AnyRef, Z >: Array[Int]](value: X, accumulator: Y): Z =
+    (builderFor(accumulator) += value.asInstanceOf[Int]).asInstanceOf[Z]
+
+  override def accumulateFrom(parser: OptionParser[_], s: String, from: Int, accumulator: Any): Any = parser match {
+    case primitive: IntValueParser =>
+      val builder = builderFor(accumulator)
+      primitive.appendTo(if (from == 0) s else s.substring(from), builder)
+      builder
+    case _ =>
+      super.accumulateFrom(parser, s, from, accumulator)
+  }
+
+  override def copy(accumulator: Any): Any = accumulator match {
+    case builder: ArrayBuilder.ofInt => new ArrayBuilder.ofInt ++= builder.result()
+    case _ => accumulator
+  }
+
+  def done[Y >: AnyRef](accumulatedValues: Y): Array[Int] = accumulatedValues match {
+    case builder: ArrayBuilder.ofInt => builder.result()
+    case _ => initialValues.clone()
+  }
+}
+
+class LongArrayOptionArgumentAccumulator(val initialValues: Array[Long] = Array()) extends PrimitiveArrayOptionArgumentAccumulator[Long, Array[Long]] {
+  private def builderFor(accumulator: Any): ArrayBuilder.ofLong = accumulator match {
+    case builder: ArrayBuilder.ofLong => builder
+    case _ =>
+      val builder = new ArrayBuilder.ofLong
+      builder ++= initialValues
+      builder
+  }
+
+  def accumulate[X >: Long, Y >: AnyRef, Z >: Array[Long]](value: X, accumulator: Y): Z =
+    (builderFor(accumulator) += value.asInstanceOf[Long]).asInstanceOf[Z]
+
+  override def accumulateFrom(parser: OptionParser[_], s: String, from: Int, accumulator: Any): Any = parser match {
+    case primitive: LongValueParser =>
+      val builder = builderFor(accumulator)
+      primitive.appendTo(if (from == 0) s else s.substring(from), builder)
+      builder
+    case _ =>
+      super.accumulateFrom(parser, s, from, accumulator)
+  }
+
+  override def copy(accumulator: Any): Any = accumulator match {
+    case builder: ArrayBuilder.ofLong => new ArrayBuilder.ofLong ++= builder.result()
+    case _ => accumulator
+  }
+
+  def done[Y >: AnyRef](accumulatedValues: Y): Array[Long] = accumulatedValues match {
+    case builder: ArrayBuilder.ofLong => builder.result()
+    case _ => initialValues.clone()
+  }
+}
+
+class DoubleArrayOptionArgumentAccumulator(val initialValues: Array[Double] = Array()) extends PrimitiveArrayOptionArgumentAccumulator[Double, Array[Double]] {
+  private def builderFor(accumulator: Any): ArrayBuilder.ofDouble = accumulator match {
+    case builder: ArrayBuilder.ofDouble => builder
+    case _ =>
+      val builder = new ArrayBuilder.ofDouble
+      builder ++= initialValues
+      builder
+  }
+
+  def accumulate[X >: Double, Y >: AnyRef, Z >: Array[Double]](value: X, accumulator: Y): Z =
+    (builderFor(accumulator) += value.asInstanceOf[Double]).asInstanceOf[Z]
+
+  override def accumulateFrom(parser: OptionParser[_], s: String, from: Int, accumulator: Any): Any = parser match {
+    case primitive: DoubleValueParser =>
+      val builder = builderFor(accumulator)
+      primitive.appendTo(if (from == 0) s else s.substring(from), builder)
+      builder
+    case _ =>
+      super.accumulateFrom(parser, s, from, accumulator)
+  }
+
+  override def copy(accumulator: Any): Any = accumulator match {
+    case builder: ArrayBuilder.ofDouble => new ArrayBuilder.ofDouble ++= builder.result()
+    case _ => accumulator
+  }
+
+  def done[Y >: AnyRef](accumulatedValues: Y): Array[Double] = accumulatedValues match {
+    case builder: ArrayBuilder.ofDouble => builder.result()
+    case _ => initialValues.clone()
+  }
+}
+
+/**
+ * Splits each option argument at its first "=" into a key and a value (e.g. "-Dkey=value") and puts
+ * them straight into a [[scalaopts.PropertyMap]], without building a list of arguments or a pair for each.
+ *
+ * Every occurrence of the option adds to the same map, which is the option's only result. The option
+ * has to be given unbounded arity (e.g. `arity UNBOUNDED`) so that no occurrence is turned away.
+ */
+class PropertyMapOptionArgumentAccumulator(val policy: DuplicatePolicy.EnumVal = DuplicatePolicy.LastWins) extends OptionArgumentAccumulator[String, AnyRef, PropertyMap] {
+  //The map is created with the first value.
+  def initialValue: AnyRef = null
+
+  override def accumulatesAcrossOccurrences: Boolean = true
+
+  //Carries on with the map from the option's previous occurrence.
+  override def initialValueAfter(option: CommandLineOptionMapTypedValue, previous: List[Any], queues: AsyncAccumulations): Any = previous match {
+    case (map: PropertyMap) :: _ => map
+    case _ => initialValue
+  }
+
+  private def mapFor(accumulator: Any): PropertyMap = accumulator match {
+    case map: PropertyMap => map
+    case _ => new PropertyMap(policy)
+  }
+
+  def accumulate[X >: String, Y >: AnyRef, Z >: PropertyMap](value: X, accumulator: Y): Z = {
+    val map = mapFor(accumulator)
+    val s = value.asInstanceOf[String]
+    map.put(s, 0, s.length)
+    map.asInstanceOf[Z]
+  }
+
+  /**
+   * Accumulates the value that begins at from in s (e.g. after the "-D" in "-Dkey=value"). Values a
+   * [[scalaopts.StringOption]] would leave alone have their key and value taken straight out of s.
+   * Returns the revised accumulation.
+   */
+  override def accumulateFrom(parser: OptionParser[_], s: String, from: Int, accumulator: Any): Any = parser match {
+    case _: StringOption if from < s.length =>
+      val map = mapFor(accumulator)
+      map.put(s, from, s.length)
+      map
+    case _ =>
+      super.accumulateFrom(parser, s, from, accumulator)
+  }
+
+  override def copy(accumulator: Any): Any = accumulator match {
+    case map: PropertyMap => map.copy()
+    case _ => accumulator
+  }
+
+  def done[Y >: AnyRef](accumulatedValues: Y): PropertyMap =
+    mapFor(accumulatedValues)
+}
+
 class SingleOptionArgumentAccumulator[+A](val singleInitialValue: A) extends OptionArgumentAccumulator[A, A, A] {
   def initialValue: A = singleInitialValue
   def accumulate[X >: A, Y >: A, Z >: A](value: X, accumulator:Y): Z = value.asInstanceOf[A]
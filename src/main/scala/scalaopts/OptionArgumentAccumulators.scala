@@ -46,6 +46,12 @@ case class AsyncChar   (override val initialValues: List[Char]    = List(), over
 case class AsyncString (override val initialValues: List[String]  = List(), override val callback: FnAsyncAccumulatorCallback[String],  override val doneCallback: Option[FnAsyncAccumulatorDone] = None) extends AsyncOptionArgumentAccumulator[String] (initialValues, callback, doneCallback)
 case class AsyncFile   (override val initialValues: List[File]    = List(), override val callback: FnAsyncAccumulatorCallback[File],    override val doneCallback: Option[FnAsyncAccumulatorDone] = None) extends AsyncOptionArgumentAccumulator[File]   (initialValues, callback, doneCallback)
 
+case class IntArrayAccumulator   (override val initialValues: Array[Int]    = Array()) extends IntArrayOptionArgumentAccumulator   (initialValues)
+case class LongArrayAccumulator  (override val initialValues: Array[Long]   = Array()) extends LongArrayOptionArgumentAccumulator  (initialValues)
+case class DoubleArrayAccumulator(override val initialValues: Array[Double] = Array()) extends DoubleArrayOptionArgumentAccumulator(initialValues)
+
+case class PropertyMapAccumulator(override val policy: DuplicatePolicy.EnumVal = DuplicatePolicy.LastWins) extends PropertyMapOptionArgumentAccumulator(policy)
+
 case class SingleByte   (val initialAccumulatorValue: Byte         = 0               ) extends SingleOptionArgumentAccumulator[Byte]         ((initialAccumulatorValue))
 case class SingleShort  (val initialAccumulatorValue: Short        = 0               ) extends SingleOptionArgumentAccumulator[Short]        ((initialAccumulatorValue))
 case class SingleInteger(val initialAccumulatorValue: Int          = 0               ) extends SingleOptionArgumentAccumulator[Int]          ((initialAccumulatorValue))
@@ -20,6 +20,7 @@
 package scalaopts
 
 import OptionParserStringTransforms._
+import scala.collection.mutable.ArrayBuilder
 
 /**
  * Holds information that will be used later when arguments are evaluated. Used in a builder fashion and meant to
@@ -53,3 +54,25 @@ class CustomOptionParser[+A](val optionDefaultValue: Option[A] = None, val useDe
     }
   }
 }
+
+/**
+ * Implemented by parsers of Int values so they can be handed to a
+ * [[scalaopts.IntArrayOptionArgumentAccumulator]] without boxing.
+ */
+trait IntValueParser {
+  /**
+   * Parses the value and appends the result (or the default value if it can't be parsed) to the
+   * builder. Returns false if nothing was appended.
+   */
+  def appendTo(value: String, builder: ArrayBuilder.ofInt): Boolean
+}
+
+/** @see [[scalaopts.IntValueParser]] */
+trait LongValueParser {
+  def appendTo(value: String, builder: ArrayBuilder.ofLong): Boolean
+}
+
+/** @see [[scalaopts.IntValueParser]] */
+trait DoubleValueParser {
+  def appendTo(value: String, builder: ArrayBuilder.ofDouble): Boolean
+}
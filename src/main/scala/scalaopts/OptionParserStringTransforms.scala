@@ -33,15 +33,152 @@ object OptionParserStringTransforms {
    */
   type FnTransform[+A] = String => Option[A]
 
-  val TRANSFORM_BOOLEAN: FnTransform[Boolean] = s => try { Some("1".equals(s) || s.toBoolean)               } catch { case _: Throwable => None }
-  val TRANSFORM_CHAR:    FnTransform[Char]    = s => try { s.toCharArray.headOption                         } catch { case _: Throwable => None }
-  val TRANSFORM_BYTE:    FnTransform[Byte]    = s => try { Some(s.toByte)                                   } catch { case _: Throwable => None }
-  val TRANSFORM_SHORT:   FnTransform[Short]   = s => try { Some(s.toShort)                                  } catch { case _: Throwable => None }
-  val TRANSFORM_INT:     FnTransform[Int]     = s => try { Some(s.toInt)                                    } catch { case _: Throwable => None }
-  val TRANSFORM_LONG:    FnTransform[Long]    = s => try { Some(s.toLong)                                   } catch { case _: Throwable => None }
-  val TRANSFORM_FLOAT:   FnTransform[Float]   = s => try { Some(s.toFloat)                                  } catch { case _: Throwable => None }
-  val TRANSFORM_DOUBLE:  FnTransform[Double]  = s => try { Some(s.toDouble)                                 } catch { case _: Throwable => None }
+  val TRANSFORM_BOOLEAN: FnTransform[Boolean] = s => if ("1".equals(s) || "true".equalsIgnoreCase(s)) SOME_TRUE else if ("false".equalsIgnoreCase(s)) SOME_FALSE else None
+  val TRANSFORM_CHAR:    FnTransform[Char]    = s => if (s.length > 0) Some(s.charAt(0)) else None
+  val TRANSFORM_BYTE:    FnTransform[Byte]    = s => { val m = integralMagnitude(s, Byte.MinValue, Byte.MaxValue); if (m != INVALID_INTEGRAL) Some(integralValue(s, m).toByte) else None }
+  val TRANSFORM_SHORT:   FnTransform[Short]   = s => { val m = integralMagnitude(s, Short.MinValue, Short.MaxValue); if (m != INVALID_INTEGRAL) Some(integralValue(s, m).toShort) else None }
+  val TRANSFORM_INT:     FnTransform[Int]     = s => { val m = integralMagnitude(s, Int.MinValue, Int.MaxValue); if (m != INVALID_INTEGRAL) Some(integralValue(s, m).toInt) else None }
+  val TRANSFORM_LONG:    FnTransform[Long]    = s => { val m = integralMagnitude(s, Long.MinValue, Long.MaxValue); if (m != INVALID_INTEGRAL) Some(integralValue(s, m)) else None }
+  val TRANSFORM_FLOAT:   FnTransform[Float]   = s => if (isFloatingPoint(s)) Some(_root_.java.lang.Float.parseFloat(s)) else None
+  val TRANSFORM_DOUBLE:  FnTransform[Double]  = s => if (isFloatingPoint(s)) Some(_root_.java.lang.Double.parseDouble(s)) else None
   val TRANSFORM_STRING:  FnTransform[String]  = s => try { if (StringUtil.isNonEmpty(s)) Some(s) else None  } catch { case _: Throwable => None }
   val TRANSFORM_FILE:    FnTransform[File]    = s => try { Some(new File(s))                                } catch { case _: Throwable => None }
   val TRANSFORM_NOOP:    FnTransform[Boolean] = s => Some(true)
+
+  private val SOME_TRUE = Some(true)
+  private val SOME_FALSE = Some(false)
+
+  /** Returned by [[scalaopts.OptionParserStringTransforms#integralMagnitude]] for invalid values. */
+  final val INVALID_INTEGRAL = 1L
+
+  /**
+   * Parses an optionally signed decimal, hexadecimal ("0x") or binary ("0b") integer without
+   * throwing. Returns the value's magnitude negated (so that min can be represented) or
+   * INVALID_INTEGRAL if the value is malformed or outside [min, max]. Use integralValue() to get
+   * the value itself.
+   *
+   * Digits are accumulated negatively with the same overflow checks as [[java.lang.Long#parseLong]].
+   */
+  def integralMagnitude(s: String, min: Long, max: Long): Long = {
+    val length = s.length
+    if (length == 0) {
+      return INVALID_INTEGRAL
+    }
+
+    val negative = s.charAt(0) == '-'
+    var i = if (negative || s.charAt(0) == '+') 1 else 0
+
+    var radix = 10
+    if (i + 1 < length && s.charAt(i) == '0') {
+      val prefix = s.charAt(i + 1)
+      if (prefix == 'x' || prefix == 'X') {
+        radix = 16
+        i += 2
+      } else if (prefix == 'b' || prefix == 'B') {
+        radix = 2
+        i += 2
+      }
+    }
+
+    if (i == length) {
+      return INVALID_INTEGRAL
+    }
+
+    val limit = if (negative) min else -max
+    val multiply_min = limit / radix
+    var result = 0L
+    while (i < length) {
+      val digit = Character.digit(s.charAt(i), radix)
+      if (digit < 0 || result < multiply_min) {
+        return INVALID_INTEGRAL
+      }
+      result *= radix
+      if (result < limit + digit) {
+        return INVALID_INTEGRAL
+      }
+      result -= digit
+      i += 1
+    }
+    result
+  }
+
+  /** Applies the sign of s to a magnitude returned by integralMagnitude(). */
+  @inline def integralValue(s: String, magnitude: Long): Long =
+    if (s.charAt(0) == '-') magnitude else -magnitude
+
+  /**
+   * True if s is a floating point value as accepted by [[java.lang.Double#valueOf]] (leading and
+   * trailing whitespace, "NaN", "Infinity", exponents, hexadecimal significands and f/d suffixes).
+   * Values that pass can be handed to parseDouble() or parseFloat() without them throwing.
+   */
+  def isFloatingPoint(s: String): Boolean = {
+    var from = 0
+    var until = s.length
+    while (from < until && s.charAt(from) <= ' ') {
+      from += 1
+    }
+    while (until > from && s.charAt(until - 1) <= ' ') {
+      until -= 1
+    }
+
+    var i = from
+    if (i < until && (s.charAt(i) == '+' || s.charAt(i) == '-')) {
+      i += 1
+    }
+
+    if (s.startsWith("NaN", i)) {
+      return i + 3 == until
+    }
+    if (s.startsWith("Infinity", i)) {
+      return i + 8 == until
+    }
+
+    val hex = i + 1 < until && s.charAt(i) == '0' && (s.charAt(i + 1) == 'x' || s.charAt(i + 1) == 'X')
+    if (hex) {
+      i += 2
+    }
+
+    val integer_end = digitsEnd(s, i, until, hex)
+    var digits = integer_end - i
+    i = integer_end
+    if (i < until && s.charAt(i) == '.') {
+      val fraction_end = digitsEnd(s, i + 1, until, hex)
+      digits += fraction_end - (i + 1)
+      i = fraction_end
+    }
+    if (digits == 0) {
+      return false
+    }
+
+    //Hexadecimal significands require a binary exponent.
+    if (i < until && (if (hex) s.charAt(i) == 'p' || s.charAt(i) == 'P' else s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
+      i += 1
+      if (i < until && (s.charAt(i) == '+' || s.charAt(i) == '-')) {
+        i += 1
+      }
+      val exponent_end = digitsEnd(s, i, until, false)
+      if (exponent_end == i) {
+        return false
+      }
+      i = exponent_end
+    } else if (hex) {
+      return false
+    }
+
+    if (i < until && (s.charAt(i) == 'f' || s.charAt(i) == 'F' || s.charAt(i) == 'd' || s.charAt(i) == 'D')) {
+      i += 1
+    }
+    i == until
+  }
+
+  private def digitsEnd(s: String, from: Int, until: Int, hex: Boolean): Int = {
+    var i = from
+    while (i < until && isDigit(s.charAt(i), hex)) {
+      i += 1
+    }
+    i
+  }
+
+  private def isDigit(c: Char, hex: Boolean): Boolean =
+    (c >= '0' && c <= '9') || (hex && ((c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F')))
 }
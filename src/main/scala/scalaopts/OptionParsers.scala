@@ -22,6 +22,7 @@ package scalaopts
 import _root_.java.io.File
 import common.StringUtil
 import OptionParserStringTransforms._
+import scala.collection.mutable.ArrayBuilder
 
 case class ByteOption(defaultValue: Byte = 0) extends CustomOptionParser[Byte](Some(defaultValue), true, true, TRANSFORM_BYTE)
 object DefaultByteOption extends ByteOption()
@@ -29,16 +30,36 @@ object DefaultByteOption extends ByteOption()
 case class ShortOption(defaultValue: Short = 0) extends CustomOptionParser[Short](Some(defaultValue), true, true, TRANSFORM_SHORT)
 object DefaultShortOption extends ShortOption()
 
-case class IntegerOption(defaultValue: Int = 0) extends CustomOptionParser[Int](Some(defaultValue), true, true, TRANSFORM_INT)
+case class IntegerOption(defaultValue: Int = 0) extends CustomOptionParser[Int](Some(defaultValue), true, true, TRANSFORM_INT) with IntValueParser {
+  def appendTo(value: String, builder: ArrayBuilder.ofInt): Boolean =
+    integralMagnitude(value, Int.MinValue, Int.MaxValue) match {
+      case INVALID_INTEGRAL => useDefaultValue && { builder += defaultValue; true }
+      case magnitude => builder += integralValue(value, magnitude).toInt; true
+    }
+}
 object DefaultIntegerOption extends IntegerOption()
 
-case class LongOption(defaultValue: Long = 0L) extends CustomOptionParser[Long](Some(defaultValue), true, true, TRANSFORM_LONG)
+case class LongOption(defaultValue: Long = 0L) extends CustomOptionParser[Long](Some(defaultValue), true, true, TRANSFORM_LONG) with LongValueParser {
+  def appendTo(value: String, builder: ArrayBuilder.ofLong): Boolean =
+    integralMagnitude(value, Long.MinValue, Long.MaxValue) match {
+      case INVALID_INTEGRAL => useDefaultValue && { builder += defaultValue; true }
+      case magnitude => builder += integralValue(value, magnitude); true
+    }
+}
 object DefaultLongOption extends LongOption()
 
 case class FloatOption(defaultValue: Float = 0.0f) extends CustomOptionParser[Float](Some(defaultValue), true, true, TRANSFORM_FLOAT)
 object DefaultFloatOption extends FloatOption()
 
-case class DoubleOption(defaultValue: Double = 0.0D) extends CustomOptionParser[Double](Some(defaultValue), true, true, TRANSFORM_DOUBLE)
+case class DoubleOption(defaultValue: Double = 0.0D) extends CustomOptionParser[Double](Some(defaultValue), true, true, TRANSFORM_DOUBLE) with DoubleValueParser {
+  def appendTo(value: String, builder: ArrayBuilder.ofDouble): Boolean =
+    if (isFloatingPoint(value)) {
+      builder += _root_.java.lang.Double.parseDouble(value)
+      true
+    } else {
+      useDefaultValue && { builder += defaultValue; true }
+    }
+}
 object DefaultDoubleOption extends DoubleOption()
 
 case class BooleanOption(defaultValue: Boolean = false) extends CustomOptionParser[Boolean](Some(defaultValue), true, true, TRANSFORM_BOOLEAN)
@@ -0,0 +1,74 @@
+/*
+  Copyright (C) 2012-2013 the original author or authors.
+
+  See the LICENSE.txt file distributed with this work for additional
+  information regarding copyright ownership.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package scalaopts
+
+/**
+ * A read-only map view over values laid out by option id (see [[scalaopts.CommandLineOptionIndex]]).
+ * Strategies fill the slots in place as options are found and callers keep looking values up by name:
+ * a lookup resolves the name through the index and then loads the slot, and nothing is copied when an
+ * option's values change. Adding or removing entries produces an ordinary map.
+ *
+ * A null slot means the option wasn't found.
+ */
+final class OptionSlotMap[V] private(val options: CommandLineOptionIndex, private[scalaopts] val slots: Array[List[Any]], wrap: List[Any] => V) extends Map[String, V] {
+  def get(name: String): Option[V] = {
+    val id = options.idOfOption(name)
+    if (id != CommandLineOptionIndex.NOT_FOUND && (slots(id) ne null)) Some(wrap(slots(id))) else None
+  }
+
+  override def contains(name: String): Boolean = {
+    val id = options.idOfOption(name)
+    id != CommandLineOptionIndex.NOT_FOUND && (slots(id) ne null)
+  }
+
+  def iterator: Iterator[(String, V)] =
+    for (id <- (0 until slots.length).iterator if slots(id) ne null)
+      yield options.option(id).name -> wrap(slots(id))
+
+  def +[B1 >: V](kv: (String, B1)): Map[String, B1] = Map[String, B1]() ++ this + kv
+  def -(name: String): Map[String, V] = Map[String, V]() ++ this - name
+
+  override def size: Int = slots.count(_ ne null)
+}
+
+object OptionSlotMap {
+  private[this] val some: List[Any] => CommandLineOptionResultValue = Some(_)
+  private[this] val identity: List[Any] => CommandLineOptionParseResultValue = values => values
+
+  /** The shape [[scalaopts.ParserStrategy]] results take. */
+  def strategyResults(options: CommandLineOptionIndex, slots: Array[List[Any]]): OptionSlotMap[CommandLineOptionResultValue] =
+    new OptionSlotMap(options, slots, some)
+
+  /** The shape [[scalaopts.ParseResults]] takes. */
+  def parseResults(options: CommandLineOptionIndex, slots: Array[List[Any]]): OptionSlotMap[CommandLineOptionParseResultValue] =
+    new OptionSlotMap(options, slots, identity)
+
+  /** Lays out a map keyed by option name by id. Names that aren't options are dropped. */
+  def slotsOf(options: CommandLineOptionIndex, results: Map[String, List[Any]]): Array[List[Any]] = {
+    val slots = new Array[List[Any]](options.size)
+    for ((name, values) <- results) {
+      val id = options.idOfOption(name)
+      if (id != CommandLineOptionIndex.NOT_FOUND) {
+        slots(id) = values
+      }
+    }
+    slots
+  }
+}
@@ -21,98 +21,93 @@ package scalaopts
 
 import _root_.java.io.PrintStream
 import scala.Iterable
-
-class Parser(val configuration: ParserConfiguration, val options: CommandLineOptionMap) {
-
-  //TODO: Use futures for getting result of parsing or waiting for parsing to complete fully...
-
-  //TODO: Use macros to create an object representing the options (translates the parse result into an option where field names are option names...)
-  //        This will require splitting out the macro definition into a separate module. They have to be compiled separately and
-  //        before the code that will use it. Please see:
-  //        http://www.warski.org/blog/2012/12/starting-with-scala-macros-a-short-tutorial/
-
-  def showUsage(programName: String = System.getProperty("sun.java.command"), out: PrintStream = System.out): Unit = {
-    out.println(s"USAGE: ${programName}")
-
-    options.foreach(_ match {
-      case(key, (opt, _)) => {
-        val longNames = opt.longNames.sorted.mkString("--", ", --", "")
-        val shortNames = opt.shortNames.sorted.mkString("-", ", -", "")
-
-        val output = s"""${longNames} [${shortNames}] ${opt.description}""".stripMargin
-
-        out.println(output)
-      }
-    })
-
-  }
+import scala.collection.mutable.ArrayBuilder
+import scala.concurrent.ExecutionContext
+import scala.concurrent.forkjoin.ForkJoinPool
+import common.platform.Terminal
+
+/**
+ * A command line specification.
+ *
+ * Parsers are thread-safe: once compiled the specification is immutable and every parse works on its
+ * own state, so a single parser can be shared by any number of threads. Custom transforms, accumulators
+ * and log appenders are called from whichever thread is parsing and must be thread-safe themselves.
+ */
+class Parser private[scalaopts](val configuration: ParserConfiguration, val options: CommandLineOptionMap, validated: Boolean) {
+  def this(configuration: ParserConfiguration, options: CommandLineOptionMap) =
+    this(configuration, options, false)
+
+  //Laid out once per parser. The rendered text is cached for the last program name and width.
+  private[this] lazy val usage = new UsageRenderer(options)
+
+  /**
+   * Prints the usage text with descriptions wrapped to the given width (by default the terminal's). The
+   * text is only laid out again if the program name or width changes.
+   */
+  def showUsage(programName: String = System.getProperty("sun.java.command"), out: PrintStream = System.out, width: Int = Terminal.queryTerminalDimensions().Width.toInt): Unit =
+    usage.write(out, programName, width)
+
+  //Validated and frozen on first use so repeated parses skip validation and setup.
+  private[this] lazy val compiled = new CompiledSpecification(configuration, CommandLineOptionIndex(options), validated)
+
+  /**
+   * Validates the options against the strategy and freezes everything that doesn't depend on the
+   * arguments being parsed. This happens once per parser; subsequent calls return the same instance.
+   *
+   * @throws IllegalArgumentException if the options do not meet the strategy's requirements.
+   */
+  def compile(): CompiledSpecification = compiled
 
   def parse(values: String*): ParseResults = parseArguments(values)
 
-  def parseArguments(values: Seq[String]): ParseResults = {
-    if (!configuration.strategy.validateOptions(options)) {
-      throw new IllegalArgumentException("The provided options do not meet the parser strategy's requirements.")
-    }
-
-    val processing = configuration.strategy.processOptions(values.toStream, options)
-    val results = processing.results
-
-    //Takes something like:
-    //  size -> Some(List(List(1, 2, 3)))
-    //and converts it to:
-    //  size -> List(List(1, 2, 3))
-    val processed_results = results.map(m => m._1 -> m._2.get)
+  def parseArguments(values: Seq[String]): ParseResults = compile().parseArguments(values)
 
-    //Post-process results (validate required options, etc.)
+  /** Parses in the background on the global execution context. */
+  def parseAsync(values: String*): AsyncParse = parseArgumentsAsync(values)
 
-    val errors: CommandLineOptionParseErrors = processing.errors
+  /** @see [[scalaopts.CompiledSpecification#parseArgumentsAsync]] */
+  def parseArgumentsAsync(values: Seq[String], executor: ExecutionContext = ExecutionContext.global): AsyncParse =
+    compile().parseArgumentsAsync(values, executor)
 
-    val any_standard_parsing_errors = !errors.isEmpty
-
-    //Are there any required options that are not present?
-    val all_missing_required =
-      for {
-        entry <- options
-        opt = entry._2._1
-        if opt.required && processed_results.contains(opt.name)
-      }
-        yield opt
-    val any_missing_required = !all_missing_required.isEmpty
-    val errors_1 = if (any_missing_required) errors.updated(ParserError.MissingRequired, all_missing_required) else errors
-
-    //Find options that are missing dependencies
-    val all_missing =
-      for {
-        entry <- results
-        name = entry._1 if options.contains(name)
-        opt = options(name)._1
-        missing = opt.dependencies.filter(!results.contains(_)).toSeq if !missing.isEmpty
-      }
-        yield opt -> missing.reverse
-    val any_missing_dependencies = !all_missing.isEmpty
-    val errors_2 = if (any_missing_dependencies) errors_1.updated(ParserError.MissingDependencies, all_missing.toMap) else errors_1
-
-    //Determine if parsing was overall successful or not.
-    val success = !any_standard_parsing_errors && !any_missing_required && !any_missing_dependencies
-
-    //Send back the results
-    new ParseResults(success, processed_results, errors_2, options)
-  }
+  /** @see [[scalaopts.CompiledSpecification#parseAll]] */
+  def parseAll(command_lines: Iterable[Seq[String]], pool: ForkJoinPool = CompiledSpecification.defaultPool): IndexedSeq[ParseResults] =
+    compile().parseAll(command_lines, pool)
 }
 
-/** Simple wrapper for a map so we can access elements by either a string name or an instance of a typed command line option. */
-class CommandLineOptionParseErrorMap[A >: CommandLineOptionMapTypedValue, B](val map: Map[A, B]) extends Map[A, B] {
+/**
+ * Simple wrapper for a map so we can access elements by either a string name or an instance of a typed command line option.
+ *
+ * Given the index of the options the errors are for, the errors are laid out by option id the first time one is
+ * looked up by name so later lookups don't scan every error.
+ */
+class CommandLineOptionParseErrorMap[A >: CommandLineOptionMapTypedValue, B](val map: Map[A, B], options: CommandLineOptionIndex = null) extends Map[A, B] {
   def iterator = map.iterator
   def get(key: A) = map.get(key)
-  def -(key: A) = new CommandLineOptionParseErrorMap[A, B](map.-(key))
-  def +[B1 >: B](kv: (A, B1)) = new CommandLineOptionParseErrorMap[A, B1](map + kv)
+  def -(key: A) = new CommandLineOptionParseErrorMap[A, B](map.-(key), options)
+  def +[B1 >: B](kv: (A, B1)) = new CommandLineOptionParseErrorMap[A, B1](map + kv, options)
+
+  private[this] lazy val by_id: Array[Option[B]] = {
+    val errors = Array.fill[Option[B]](options.size)(None)
+    for ((key, value) <- map) {
+      val id = options.idOfOption(key.asInstanceOf[CommandLineOptionMapTypedValue].name)
+      if (id != CommandLineOptionIndex.NOT_FOUND) {
+        errors(id) = Some(value)
+      }
+    }
+    errors
+  }
 
   def apply(name: String): Option[B] = {
-    val entry = map.find(_._1.asInstanceOf[CommandLineOptionMapTypedValue].name.equalsIgnoreCase(name))
-    if (entry.isDefined) {
-      Some(entry.get._2)
+    if (options != null) {
+      val id = options.idOfOptionIgnoringCase(name)
+      if (id != CommandLineOptionIndex.NOT_FOUND) by_id(id) else None
     } else {
-      None
+      val entry = map.find(_._1.asInstanceOf[CommandLineOptionMapTypedValue].name.equalsIgnoreCase(name))
+      if (entry.isDefined) {
+        Some(entry.get._2)
+      } else {
+        None
+      }
     }
   }
 
@@ -120,8 +115,18 @@ class CommandLineOptionParseErrorMap[A >: CommandLineOptionMapTypedValue, B](val
     map.get(opt).get
 }
 
-/** What callers work with. */
-class ParseResults(val success: Boolean, val optionResults: CommandLineOptionParseResults, val errors: CommandLineOptionParseErrors, val options: CommandLineOptionMap) {
+/**
+ * What callers work with.
+ *
+ * Results from a compiled specification keep values in an array indexed by option id (see
+ * [[scalaopts.OptionSlotMap]]); looking one up by name resolves the name through the option index.
+ *
+ * @param arguments The arguments that were parsed.
+ * @param operandsIndex Index of the first operand in arguments. Operands are everything following a "--"
+ *                      terminator or beginning with a lone "-"; -1 if option processing didn't stop at
+ *                      either.
+ */
+class ParseResults(val success: Boolean, val optionResults: CommandLineOptionParseResults, val errors: CommandLineOptionParseErrors, val options: CommandLineOptionMap, val arguments: IndexedSeq[String] = IndexedSeq(), val operandsIndex: Int = -1) {
   def apply[T](name: String): Option[Seq[T]] = optionResults.get(name) match {
     case None => None
     case Some(value) => Some(value.asInstanceOf[Seq[T]])
@@ -148,9 +153,114 @@ class ParseResults(val success: Boolean, val optionResults: CommandLineOptionPar
       defaultFor[T](name)
     }
 
+  /**
+   * Returns every value given for the named option as an Int array, in the order they appeared.
+   * Options accumulated with an [[scalaopts.IntArrayAccumulator]] are returned without boxing (and
+   * without copying if the option appeared once).
+   */
+  def intArray(name: String): Option[Array[Int]] = optionResults.get(name).map {
+    case (single: Array[Int]) :: Nil => single
+    case values =>
+      val builder = new ArrayBuilder.ofInt
+      for (value <- values) value match {
+        case array: Array[Int] => builder ++= array
+        case seq: Seq[_] => for (v <- seq) builder += v.asInstanceOf[Int]
+        case v => builder += v.asInstanceOf[Int]
+      }
+      builder.result()
+  }
+
+  /** @see [[scalaopts.ParseResults#intArray]] */
+  def longArray(name: String): Option[Array[Long]] = optionResults.get(name).map {
+    case (single: Array[Long]) :: Nil => single
+    case values =>
+      val builder = new ArrayBuilder.ofLong
+      for (value <- values) value match {
+        case array: Array[Long] => builder ++= array
+        case seq: Seq[_] => for (v <- seq) builder += v.asInstanceOf[Long]
+        case v => builder += v.asInstanceOf[Long]
+      }
+      builder.result()
+  }
+
+  /** @see [[scalaopts.ParseResults#intArray]] */
+  def doubleArray(name: String): Option[Array[Double]] = optionResults.get(name).map {
+    case (single: Array[Double]) :: Nil => single
+    case values =>
+      val builder = new ArrayBuilder.ofDouble
+      for (value <- values) value match {
+        case array: Array[Double] => builder ++= array
+        case seq: Seq[_] => for (v <- seq) builder += v.asInstanceOf[Double]
+        case v => builder += v.asInstanceOf[Double]
+      }
+      builder.result()
+  }
+
+  /**
+   * Returns the "key=value" settings given for the named option. Options accumulated with a
+   * [[scalaopts.PropertyMapAccumulator]] are returned as accumulated. Values of any other option are
+   * split at their first "=" into a new map where the last value given for a key wins.
+   */
+  def properties(name: String): Option[PropertyMap] = optionResults.get(name).map { values =>
+    values.lastOption match {
+      //Every occurrence added to the option's one map.
+      case Some(map: PropertyMap) => map
+      case _ =>
+        val map = new PropertyMap(DuplicatePolicy.LastWins)
+        def put(value: Any): Unit = value match {
+          case seq: Seq[_] => seq.foreach(put)
+          case s: String => map.put(s, 0, s.length)
+          case _ =>
+        }
+        values.foreach(put)
+        map
+    }
+  }
+
+  def hasOperands: Boolean = operandsIndex >= 0 && arguments.lengthCompare(operandsIndex) > 0
+
+  /**
+   * Iterates once over the operands in place. Option processing never looks past the start of the
+   * operands and nothing is copied, so this is cheap no matter how many operands there are.
+   *
+   * Operands read from response files are streamed from the files as they're iterated over and can
+   * only be iterated over once.
+   */
+  def operands: Iterator[String] = arguments match {
+    case _ if operandsIndex < 0 => Iterator.empty
+    case expanded: ResponseFileArguments => expanded.iteratorFrom(operandsIndex)
+    case _ => argumentsFrom(operandsIndex)
+  }
+
+  private def argumentsFrom(start: Int): Iterator[String] = new Iterator[String] {
+    private[this] var index = start
+
+    def hasNext: Boolean = index < arguments.length
+
+    def next(): String = {
+      if (!hasNext) {
+        throw new NoSuchElementException("No more operands")
+      }
+      val operand = arguments(index)
+      index += 1
+      operand
+    }
+  }
+
   def anyMissingRequired:     Boolean = errors.contains(ParserError.MissingRequired)
   def anyMissingDependencies: Boolean = errors.contains(ParserError.MissingDependencies)
   def anyInvalidOptions:      Boolean = errors.contains(ParserError.InvalidOptions)
+  def anyAccumulatorFailures: Boolean = errors.contains(ParserError.AccumulatorFailures)
+  def anyAmbiguousOptions:    Boolean = errors.contains(ParserError.AmbiguousOptions)
+  def anyUnrecognizedOptions: Boolean = errors.contains(ParserError.UnrecognizedOptions)
+
+  /** Each abbreviation that matched more than one option, with the long names it matched. */
+  def ambiguousOptions: Map[String, Seq[String]] =
+    errors.getOrElse(ParserError.AmbiguousOptions, Map()).asInstanceOf[Map[String, Seq[String]]]
+
+  /** Each option that wasn't recognized, with the closest long names (if any) to suggest instead. */
+  def unrecognizedOptions: Map[String, Seq[String]] =
+    errors.getOrElse(ParserError.UnrecognizedOptions, Map()).asInstanceOf[Map[String, Seq[String]]]
 
   def missingRequired: Iterable[CommandLineOptionMapTypedValue] =
     if (anyMissingRequired) {
@@ -159,13 +269,27 @@ class ParseResults(val success: Boolean, val optionResults: CommandLineOptionPar
       Iterable()
     }
 
-  def missingDependencies: CommandLineOptionParseErrorMap[CommandLineOptionMapTypedValue, Seq[String]] =
+  //Lets the error maps below resolve names by id. Only available when the options were compiled.
+  private[this] def index: CommandLineOptionIndex = options match {
+    case index: CommandLineOptionIndex => index
+    case _ => null
+  }
+
+  lazy val missingDependencies: CommandLineOptionParseErrorMap[CommandLineOptionMapTypedValue, Seq[String]] =
     if (anyMissingDependencies) {
-      new CommandLineOptionParseErrorMap[CommandLineOptionMapTypedValue, Seq[String]](errors(ParserError.MissingDependencies).asInstanceOf[Map[CommandLineOptionMapTypedValue, Seq[String]]] withDefaultValue Seq[String]())
+      new CommandLineOptionParseErrorMap[CommandLineOptionMapTypedValue, Seq[String]](errors(ParserError.MissingDependencies).asInstanceOf[Map[CommandLineOptionMapTypedValue, Seq[String]]] withDefaultValue Seq[String](), index)
     } else {
       new CommandLineOptionParseErrorMap[CommandLineOptionMapTypedValue, Seq[String]](Map() withDefaultValue Seq[String]())
     }
 
+  /** Exceptions thrown by async accumulator callbacks, in the order they were thrown for each option. */
+  lazy val accumulatorFailures: CommandLineOptionParseErrorMap[CommandLineOptionMapTypedValue, Seq[Throwable]] =
+    if (anyAccumulatorFailures) {
+      new CommandLineOptionParseErrorMap[CommandLineOptionMapTypedValue, Seq[Throwable]](errors(ParserError.AccumulatorFailures).asInstanceOf[Map[CommandLineOptionMapTypedValue, Seq[Throwable]]] withDefaultValue Seq[Throwable](), index)
+    } else {
+      new CommandLineOptionParseErrorMap[CommandLineOptionMapTypedValue, Seq[Throwable]](Map() withDefaultValue Seq[Throwable]())
+    }
+
   def visitMissingRequired(visitor: CommandLineOptionMapTypedValue => Boolean): Unit = {
     val iter = missingRequired.iterator
     while(iter.hasNext && visitor(iter.next())) {
@@ -21,6 +21,15 @@ package scalaopts
 
 import util.matching.Regex
 
-class ParserConfiguration(val strategy: ParserStrategy) {
+/**
+ * @param strategy parses the arguments
+ * @param logger receives the strategy's diagnostic messages. Defaults to [[scalaopts.ParserLogger.default]],
+ *               which is off unless enabled by system property.
+ * @param expandResponseFiles if true, arguments of the form "@file" are replaced by the arguments read
+ *                            from the file (see [[scalaopts.ResponseFileArguments]]).
+ * @param asyncAccumulators if defined, the callbacks of [[scalaopts.AsyncOptionArgumentAccumulator]]s run on its
+ *                          executor instead of the parsing thread (see [[scalaopts.AsyncConfiguration]]).
+ */
+class ParserConfiguration(val strategy: ParserStrategy, val logger: ParserLogger = ParserLogger.default, val expandResponseFiles: Boolean = false, val asyncAccumulators: Option[AsyncConfiguration] = None) {
 
 }
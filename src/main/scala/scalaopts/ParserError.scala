@@ -31,8 +31,15 @@ object ParserError extends Enum {
 
   private val KEY_PREFIX = StringUtil.toKeyPrefix(getClass)
 
+  //Keys end with the name.
+  override protected def nameOf(value: EnumVal): String =
+    value.key.substring(KEY_PREFIX.length)
+
   val Unknown             = EnumVal( 0, "Unknown",              KEY_PREFIX + "Unknown",             "An unknown error has occurred")
   val MissingRequired     = EnumVal( 1, "Missing Required",     KEY_PREFIX + "MissingRequired",     "Required options are missing")
   val MissingDependencies = EnumVal( 2, "Missing Dependencies", KEY_PREFIX + "MissingDependencies", "One or more required dependencies are missing")
   val InvalidOptions      = EnumVal( 3, "Invalid Options",      KEY_PREFIX + "InvalidOptions",      "One or more invalid option was specified")
+  val AccumulatorFailures = EnumVal( 4, "Accumulator Failures", KEY_PREFIX + "AccumulatorFailures", "One or more accumulator callbacks failed")
+  val AmbiguousOptions    = EnumVal( 5, "Ambiguous Options",    KEY_PREFIX + "AmbiguousOptions",    "One or more abbreviated options matched more than one option")
+  val UnrecognizedOptions = EnumVal( 6, "Unrecognized Options", KEY_PREFIX + "UnrecognizedOptions", "One or more options were not recognized")
 }
@@ -0,0 +1,122 @@
+/*
+  Copyright (C) 2012-2013 the original author or authors.
+
+  See the LICENSE.txt file distributed with this work for additional
+  information regarding copyright ownership.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package scalaopts
+
+/**
+ * Receives the parser's diagnostic messages.
+ */
+trait LogAppender {
+  def append(level: LogLevel.EnumVal, message: String): Unit
+}
+
+object LogAppender {
+  /** Writes messages to standard error. */
+  object Console extends LogAppender {
+    def append(level: LogLevel.EnumVal, message: String): Unit =
+      System.err.println("[scalaopts] " + level.title.toUpperCase + ": " + message)
+  }
+
+  /** Hands messages to zero-log as configured by [[scalaopts.ZeroLoggerFactory]]. */
+  object ZeroLog extends LogAppender {
+    private[this] implicit val (logger, formatter, appender) = ZeroLoggerFactory.newLoggerFor(classOf[LogAppender])
+
+    def append(level: LogLevel.EnumVal, message: String): Unit = level match {
+      case LogLevel.Severe  => logger.severe(message)
+      case LogLevel.Warning => logger.warning(message)
+      case LogLevel.Info    => logger.info(message)
+      case LogLevel.Config  => logger.config(message)
+      case LogLevel.Fine    => logger.fine(message)
+      case LogLevel.Finer   => logger.finer(message)
+      case LogLevel.Finest  => logger.finest(message)
+      case _ =>
+    }
+  }
+
+  /**
+   * Resolves an appender by name: "console", "zero-log" or the fully qualified name of a
+   * [[scalaopts.LogAppender]] class with a no-argument constructor.
+   */
+  def fromName(name: String): LogAppender = name.trim.toLowerCase match {
+    case "console" => Console
+    case "zero-log" | "zerolog" => ZeroLog
+    case _ => Class.forName(name.trim).newInstance().asInstanceOf[LogAppender]
+  }
+}
+
+/**
+ * Diagnostic logging for parser strategies.
+ *
+ * The enabled flags are fixed when the logger is created, so callers guard each message with them
+ * before building it:
+ *
+ * {{{
+ *   if (logger.isInfoEnabled) logger.info(fast"Examining $arg")
+ * }}}
+ *
+ * With logging off the guard is a read of a final field that is always false: no message is
+ * formatted and the appender is never called.
+ */
+final class ParserLogger(val level: LogLevel.EnumVal, val appender: LogAppender) {
+  val isSevereEnabled  = isEnabled(LogLevel.Severe)
+  val isWarningEnabled = isEnabled(LogLevel.Warning)
+  val isInfoEnabled    = isEnabled(LogLevel.Info)
+  val isConfigEnabled  = isEnabled(LogLevel.Config)
+  val isFineEnabled    = isEnabled(LogLevel.Fine)
+  val isFinerEnabled   = isEnabled(LogLevel.Finer)
+  val isFinestEnabled  = isEnabled(LogLevel.Finest)
+
+  def isEnabled(message_level: LogLevel.EnumVal): Boolean =
+    message_level.severity > 0 && message_level.severity <= level.severity
+
+  def log(message_level: LogLevel.EnumVal, message: Any): Unit =
+    if (isEnabled(message_level)) appender.append(message_level, message.toString)
+
+  def severe(message: Any): Unit  = log(LogLevel.Severe, message)
+  def warning(message: Any): Unit = log(LogLevel.Warning, message)
+  def info(message: Any): Unit    = log(LogLevel.Info, message)
+  def config(message: Any): Unit  = log(LogLevel.Config, message)
+  def fine(message: Any): Unit    = log(LogLevel.Fine, message)
+  def finer(message: Any): Unit   = log(LogLevel.Finer, message)
+  def finest(message: Any): Unit  = log(LogLevel.Finest, message)
+}
+
+object ParserLogger {
+  val LEVEL_PROPERTY = "scalaopts.log.level"
+  val APPENDER_PROPERTY = "scalaopts.log.appender"
+
+  /** Logs nothing. */
+  val Off = new ParserLogger(LogLevel.Off, LogAppender.Console)
+
+  /**
+   * The logger used when a [[scalaopts.ParserConfiguration]] doesn't specify one. Off unless the
+   * `scalaopts.log.level` system property names a level (e.g. `-Dscalaopts.log.level=fine`). The
+   * appender defaults to the console and can be changed with `scalaopts.log.appender`.
+   */
+  lazy val default: ParserLogger = fromProperties(System.getProperty(LEVEL_PROPERTY), System.getProperty(APPENDER_PROPERTY))
+
+  def apply(level: LogLevel.EnumVal, appender: LogAppender = LogAppender.Console): ParserLogger =
+    if (level.severity == LogLevel.Off.severity) Off else new ParserLogger(level, appender)
+
+  def fromProperties(level: String, appender: String): ParserLogger =
+    Option(level).flatMap(LogLevel.fromTitle) match {
+      case Some(l) if l.severity != LogLevel.Off.severity => new ParserLogger(l, Option(appender).map(LogAppender.fromName).getOrElse(LogAppender.Console))
+      case _ => Off
+    }
+}
@@ -19,7 +19,11 @@
 
 package scalaopts
 
-trait ParserStrategy {
+/**
+ * Walks the arguments and finds the options in them. Also a [[scalaopts.java.IParserStrategy]] so strategies can be
+ * configured from Java.
+ */
+trait ParserStrategy extends java.IParserStrategy {
   def validateOptions(options: CommandLineOptionMap): Boolean
 
   /**
@@ -29,4 +33,48 @@ trait ParserStrategy {
    * @return
    */
   def processOptions(application_arguments: Stream[String], options: CommandLineOptionMap): CommandLineOptionResults
+
+  /**
+   * Processes the arguments in place. Strategies that can walk the original arguments by index
+   * (see [[scalaopts.strategy.ArgumentCursor]]) should override this to avoid materializing a
+   * stream. By default the arguments are handed to the stream-based implementation.
+   */
+  def processOptions(application_arguments: IndexedSeq[String], options: CommandLineOptionMap): CommandLineOptionResults =
+    processOptions(application_arguments.toStream, options)
+
+  /**
+   * Processes the arguments using the given configuration's settings (e.g. its logger). By default
+   * the configuration is ignored.
+   */
+  def processOptions(application_arguments: IndexedSeq[String], options: CommandLineOptionMap, configuration: ParserConfiguration): CommandLineOptionResults =
+    processOptions(application_arguments, options, configuration, null)
+
+  /**
+   * As above, additionally telling the listener (if not null) about options whose values are final
+   * before every argument has been processed. By default the listener isn't told anything and the
+   * caller reports every option once processing returns.
+   */
+  def processOptions(application_arguments: IndexedSeq[String], options: CommandLineOptionMap, configuration: ParserConfiguration, listener: ParseListener): CommandLineOptionResults =
+    processOptions(application_arguments, options)
+
+  /**
+   * Returns the index of the first argument that is neither an option nor one of an option's values,
+   * which is where a subcommand is named (see [[scalaopts.CommandParser]]), or -1 if option processing
+   * would stop before reaching one. Nothing is parsed or accumulated.
+   *
+   * By default that's the first argument that doesn't begin with a hyphen, and "--" ends the search.
+   */
+  def commandIndex(application_arguments: IndexedSeq[String], options: CommandLineOptionIndex): Int = {
+    var i = 0
+    while (i < application_arguments.length) {
+      val arg = application_arguments(i)
+      if (arg == "--") {
+        return -1
+      } else if (!arg.startsWith("-")) {
+        return i
+      }
+      i += 1
+    }
+    -1
+  }
 }
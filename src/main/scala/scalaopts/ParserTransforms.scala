@@ -23,7 +23,7 @@ import annotation.tailrec
 
 object ParserTransforms {
 
-  def createParserMap(options: Seq[CommandLineOptionMapTypedValue]): CommandLineOptionMap = {
+  def createParserMap(options: Seq[CommandLineOptionMapTypedValue]): CommandLineOptionIndex = {
     //Ensure that we have a set of unique names across option names
     val option_names_with_potential_duplicates = options.map(_.name)
     val unique_option_names = option_names_with_potential_duplicates.distinct
@@ -40,12 +40,15 @@ object ParserTransforms {
       throw new IllegalArgumentException("Command line options must have unique long names and short names across the entire set. The following are non-unique names: " + (non_unique_names mkString ", "))
     }
 
-    (
-      for {
-        opt <- options
-      }
-        yield opt.name -> (opt, opt.accumulator.initialValue)
-    ).toMap
+    //Index the names up front so strategies can resolve options without scanning the map.
+    CommandLineOptionIndex(
+      (
+        for {
+          opt <- options
+        }
+          yield opt.name -> (opt, opt.accumulator.initialValue)
+      ).toMap
+    )
   }
 
   def createParser(configuration: ParserConfiguration, options: Seq[CommandLineOptionMapTypedValue]): Parser = {
@@ -0,0 +1,208 @@
+/*
+  Copyright (C) 2012-2013 the original author or authors.
+
+  See the LICENSE.txt file distributed with this work for additional
+  information regarding copyright ownership.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+package scalaopts
+
+import common.Enum
+
+/**
+ * What a [[scalaopts.PropertyMap]] does when a key it already has is given again.
+ */
+object DuplicatePolicy extends Enum {
+  sealed case class EnumVal private[DuplicatePolicy](title: String) extends Value
+
+  override protected def nameOf(value: EnumVal): String =
+    value.title
+
+  /** The first value given for a key is kept and later ones are ignored. */
+  val FirstWins = EnumVal("FirstWins")
+
+  /** Each value given for a key replaces the one before it (as repeated -D options do for the JVM). */
+  val LastWins  = EnumVal("LastWins")
+
+  /** Every value given for a key is kept. The last one is the key's value. */
+  val Collect   = EnumVal("Collect")
+}
+
+/**
+ * Keys and values read from "key=value" option arguments (e.g. "-Dkey=value"), in the order the keys
+ * were first given.
+ *
+ * Entries are kept in parallel arrays in insertion order and found through an open-addressing (linear
+ * probing) table of entry positions, so there's no per-entry object and copying the map copies a
+ * handful of arrays. Values that were replaced are only kept when the policy is
+ * [[scalaopts.DuplicatePolicy.Collect]].
+ *
+ * Filled in by a [[scalaopts.PropertyMapOptionArgumentAccumulator]] while parsing and not modified
+ * afterwards.
+ */
+final class PropertyMap private(
+    val policy: DuplicatePolicy.EnumVal
+  , private[this] var entry_keys: Array[String]
+  , private[this] var entry_values: Array[String]
+  , private[this] var replaced: Array[List[String]]
+  , private[this] var count: Int
+  , private[this] var table: Array[Int]
+) {
+  def this(policy: DuplicatePolicy.EnumVal) =
+    this(policy, new Array[String](8), new Array[String](8), if (policy eq DuplicatePolicy.Collect) new Array[List[String]](8) else null, 0, new Array[Int](16))
+
+  def size: Int = count
+  def isEmpty: Boolean = count == 0
+
+  def contains(key: String): Boolean =
+    entryOf(key) >= 0
+
+  /** The key's value as chosen by the policy. */
+  def get(key: String): Option[String] = {
+    val entry = entryOf(key)
+    if (entry >= 0) Some(entry_values(entry)) else None
+  }
+
+  def getOrElse(key: String, default: => String): String = {
+    val entry = entryOf(key)
+    if (entry >= 0) entry_values(entry) else default
+  }
+
+  def apply(key: String): String = {
+    val entry = entryOf(key)
+    if (entry >= 0) entry_values(entry) else throw new NoSuchElementException("key not found: " + key)
+  }
+
+  /** Every value kept for the key in the order they were given. Only [[scalaopts.DuplicatePolicy.Collect]] keeps more than one. */
+  def all(key: String): Seq[String] = {
+    val entry = entryOf(key)
+    if (entry < 0) Nil
+    else if ((replaced eq null) || (replaced(entry) eq null)) List(entry_values(entry))
+    else (entry_values(entry) :: replaced(entry)).reverse
+  }
+
+  /** The keys in the order they were first given. */
+  def keys: Seq[String] =
+    entry_keys.take(count)
+
+  def iterator: Iterator[(String, String)] =
+    Iterator.range(0, count).map(entry => entry_keys(entry) -> entry_values(entry))
+
+  def foreach[U](f: (String, String) => U): Unit = {
+    var entry = 0
+    while (entry < count) {
+      f(entry_keys(entry), entry_values(entry))
+      entry += 1
+    }
+  }
+
+  def toMap: Map[String, String] =
+    iterator.toMap
+
+  /** As a java.util.Properties, e.g. to pass on to System.setProperties(). */
+  def toProperties: _root_.java.util.Properties = {
+    val properties = new _root_.java.util.Properties()
+    foreach(properties.setProperty)
+    properties
+  }
+
+  /**
+   * Puts the key and value found in the region [from, until) of s, split at its first "=". A region
+   * without an "=" is a key with an empty value and one without a key is ignored.
+   */
+  private[scalaopts] def put(s: String, from: Int, until: Int): Unit = {
+    val found = s.indexOf('=', from)
+    val equals = if (found >= 0 && found < until) found else until
+    if (equals > from) {
+      put(s.substring(from, equals), if (equals < until) s.substring(equals + 1, until) else "")
+    }
+  }
+
+  private[scalaopts] def put(key: String, value: String): Unit = {
+    val mask = table.length - 1
+    var slot = slotOf(key, table.length)
+    while (table(slot) != 0) {
+      val entry = table(slot) - 1
+      if (entry_keys(entry) == key) {
+        if (policy eq DuplicatePolicy.Collect) {
+          replaced(entry) = entry_values(entry) :: (if (replaced(entry) ne null) replaced(entry) else Nil)
+          entry_values(entry) = value
+        } else if (policy ne DuplicatePolicy.FirstWins) {
+          entry_values(entry) = value
+        }
+        return
+      }
+      slot = (slot + 1) & mask
+    }
+    if (count == entry_keys.length) {
+      grow()
+    }
+    entry_keys(count) = key
+    entry_values(count) = value
+    count += 1
+    table(slot) = count
+    //Kept at most half full so probe sequences stay short.
+    if (count * 2 > table.length) {
+      rehash(table.length * 2)
+    }
+  }
+
+  /** A map with the same entries that can be added to without affecting this one. */
+  private[scalaopts] def copy(): PropertyMap =
+    new PropertyMap(policy, entry_keys.clone(), entry_values.clone(), if (replaced ne null) replaced.clone() else null, count, table.clone())
+
+  private def entryOf(key: String): Int = {
+    val mask = table.length - 1
+    var slot = slotOf(key, table.length)
+    while (table(slot) != 0) {
+      val entry = table(slot) - 1
+      if (entry_keys(entry) == key) {
+        return entry
+      }
+      slot = (slot + 1) & mask
+    }
+    -1
+  }
+
+  private def grow(): Unit = {
+    val capacity = entry_keys.length * 2
+    entry_keys = _root_.java.util.Arrays.copyOf(entry_keys, capacity)
+    entry_values = _root_.java.util.Arrays.copyOf(entry_values, capacity)
+    if (replaced ne null) {
+      replaced = _root_.java.util.Arrays.copyOf(replaced, capacity)
+    }
+  }
+
+  private def rehash(capacity: Int): Unit = {
+    val mask = capacity - 1
+    table = new Array[Int](capacity)
+    var entry = 0
+    while (entry < count) {
+      var slot = slotOf(entry_keys(entry), capacity)
+      while (table(slot) != 0) {
+        slot = (slot + 1) & mask
+      }
+      table(slot) = entry + 1
+      entry += 1
+    }
+  }
+
+  //Keys often only differ in their last few characters (e.g. "setting.1", "setting.2", ...), giving hash codes
+  //that would pile up in neighbouring slots. Multiplying by the golden ratio spreads them across the table.
+  private def slotOf(key: String, capacity: Int): Int =
+    (key.hashCode * 0x9E3779B9) >>> Integer.numberOfLeadingZeros(capacity - 1)
+
+  override def toString: String =
+    iterator.map(entry => entry._1 + "=" + entry._2).mkString("PropertyMap(", ", ", ")")
+}
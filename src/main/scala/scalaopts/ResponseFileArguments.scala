@@ -0,0 +1,250 @@
+/*
+  Copyright (C) 2012-2013 the original author or authors.
+
+  See the LICENSE.txt file distributed with this work for additional
+  information regarding copyright ownership.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package scalaopts
+
+import _root_.java.io.{FileInputStream, File}
+import _root_.java.nio.{MappedByteBuffer, CharBuffer}
+import _root_.java.nio.channels.FileChannel
+import _root_.java.nio.charset.{CodingErrorAction, Charset}
+import scala.collection.mutable.ArrayBuffer
+
+/**
+ * Arguments with GNU-style response files expanded: an argument of the form "@file" naming a
+ * readable file is replaced by the arguments found in that file. Files may refer to other response
+ * files. If the file doesn't exist the argument is left as is. Arguments following a "--" terminator,
+ * whether on the command line or in a file, are operands and aren't expanded.
+ *
+ * Expansion is lazy. Tokens are pulled from the files as a strategy asks for arguments and only the
+ * tokens it has looked at are kept. [[scalaopts.ResponseFileArguments#iteratorFrom]] continues from
+ * there without keeping anything, so the operands of even very large files are never all in memory.
+ * Asking for the length expands everything and should be avoided.
+ *
+ * Not thread-safe.
+ */
+final class ResponseFileArguments(arguments: Seq[String], charset: Charset = Charset.defaultCharset()) extends IndexedSeq[String] {
+  import ResponseFileArguments._
+
+  private[this] val tokens = new Expansion(arguments.iterator, charset)
+  private[this] val seen = new ArrayBuffer[String]()
+  private[this] var streaming = false
+
+  /** Pulls tokens until the one at index has been seen. Returns false if there are fewer tokens. */
+  private def fill(index: Int): Boolean = {
+    while (seen.length <= index && !streaming && tokens.hasNext) {
+      seen += tokens.next()
+    }
+    index < seen.length
+  }
+
+  def apply(index: Int): String =
+    if (fill(index)) seen(index) else throw new IndexOutOfBoundsException(index.toString)
+
+  def length: Int = {
+    fill(Int.MaxValue - 1)
+    seen.length
+  }
+
+  override def isDefinedAt(index: Int): Boolean =
+    index >= 0 && fill(index)
+
+  override def lengthCompare(len: Int): Int =
+    if (len < 0) 1 else if (fill(len)) 1 else seen.length - len
+
+  /**
+   * Iterates over the arguments starting at index, continuing through the rest of the response files
+   * without keeping the tokens. Can only be called once: afterwards the sequence no longer grows.
+   */
+  def iteratorFrom(index: Int): Iterator[String] = {
+    if (streaming) {
+      throw new IllegalStateException("The remaining arguments have already been iterated over")
+    }
+    streaming = true
+    seen.iterator.drop(index) ++ tokens
+  }
+}
+
+object ResponseFileArguments {
+  val PREFIX = '@'
+  val TERMINATOR = "--"
+
+  /** Size of the file regions that are mapped at a time. */
+  val WINDOW_SIZE = 8 * 1024 * 1024
+
+  /** Size of the buffer that the mapped bytes are decoded into. */
+  val CHAR_BUFFER_SIZE = 16 * 1024
+
+  def isResponseFile(argument: String): Boolean =
+    argument.length > 1 && argument.charAt(0) == PREFIX && new File(argument.substring(1)).isFile
+
+  /** True if a response file is named before any "--" terminator. */
+  def hasResponseFile(arguments: Seq[String]): Boolean =
+    arguments.iterator.takeWhile(_ != TERMINATOR).exists(isResponseFile)
+
+  /** Walks the arguments, descending into response files as they're found. */
+  private final class Expansion(arguments: Iterator[String], charset: Charset) extends Iterator[String] {
+    private[this] var files: List[Tokenizer] = Nil
+    private[this] var pending: String = null
+    private[this] var terminated = false
+
+    def hasNext: Boolean = {
+      while (pending == null) {
+        val token = files match {
+          case tokenizer :: rest =>
+            val t = tokenizer.next()
+            if (t == null) {
+              files = rest
+            }
+            t
+          case Nil =>
+            if (arguments.hasNext) arguments.next() else return false
+        }
+
+        if (token != null) {
+          if (!terminated && isResponseFile(token)) {
+            val file = new File(token.substring(1)).getCanonicalFile
+            if (files.exists(_.file == file)) {
+              throw new IllegalArgumentException("Response file includes itself: " + (file :: files.map(_.file)).reverse.mkString(" -> "))
+            }
+            files = new Tokenizer(file, new MappedReader(file, charset)) :: files
+          } else {
+            terminated = terminated || token == TERMINATOR
+            pending = token
+          }
+        }
+      }
+      true
+    }
+
+    def next(): String = {
+      if (!hasNext) {
+        throw new NoSuchElementException("No more arguments")
+      }
+      val token = pending
+      pending = null
+      token
+    }
+  }
+
+  /**
+   * Splits a response file into arguments the way a shell would: arguments are separated by
+   * whitespace, single quotes preserve everything up to the next single quote, double quotes
+   * preserve whitespace and a backslash outside of single quotes escapes the next character.
+   */
+  private final class Tokenizer(val file: File, reader: MappedReader) {
+    private[this] val token = new StringBuilder()
+
+    /** Returns the next argument or null at the end of the file. */
+    def next(): String = {
+      var c = reader.read()
+      while (c >= 0 && Character.isWhitespace(c)) {
+        c = reader.read()
+      }
+      if (c < 0) {
+        return null
+      }
+
+      token.setLength(0)
+      var quote = 0
+      while (c >= 0 && (quote != 0 || !Character.isWhitespace(c))) {
+        if (quote == 0 && (c == '\'' || c == '"')) {
+          quote = c
+        } else if (quote == c) {
+          quote = 0
+        } else if (c == '\\' && quote != '\'') {
+          c = reader.read()
+          if (c >= 0) {
+            token.append(c.toChar)
+          }
+        } else {
+          token.append(c.toChar)
+        }
+        if (c >= 0) {
+          c = reader.read()
+        }
+      }
+      token.toString
+    }
+  }
+
+  /**
+   * Decodes a file's characters a window at a time. Each window is mapped into memory and its channel
+   * closed right away (the mapping stays valid), so no file handles are held between reads. At most one
+   * window and one buffer of characters are referenced at a time.
+   */
+  private final class MappedReader(file: File, charset: Charset) {
+    private[this] val decoder = charset.newDecoder()
+      .onMalformedInput(CodingErrorAction.REPLACE)
+      .onUnmappableCharacter(CodingErrorAction.REPLACE)
+    private[this] val chars = CharBuffer.allocate(CHAR_BUFFER_SIZE)
+    private[this] var size = -1L
+    private[this] var window_start = 0L
+    private[this] var window: MappedByteBuffer = null
+    private[this] var flushed = false
+
+    chars.flip()
+
+    /** Returns the next character or -1 at the end of the file. */
+    def read(): Int = {
+      if (!chars.hasRemaining && !fill()) -1 else chars.get()
+    }
+
+    private def map(position: Long): Unit = {
+      val channel = new FileInputStream(file).getChannel
+      try {
+        if (size < 0) {
+          size = channel.size()
+        }
+        window_start = position
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, math.min(WINDOW_SIZE.toLong, size - position))
+      } finally {
+        channel.close()
+      }
+    }
+
+    private def fill(): Boolean = {
+      if (flushed) {
+        return false
+      }
+      if (window == null) {
+        map(0L)
+      }
+
+      chars.clear()
+      while (chars.position() == 0 && !flushed) {
+        val end_of_input = window_start + window.limit() == size
+        if (!window.hasRemaining && !end_of_input) {
+          map(window_start + window.position())
+        } else {
+          decoder.decode(window, chars, end_of_input)
+          if (end_of_input && chars.position() == 0) {
+            decoder.flush(chars)
+            flushed = true
+            window = null
+          } else if (!end_of_input && chars.position() == 0) {
+            //Only part of a character is left in this window, continue with the next one.
+            map(window_start + window.position())
+          }
+        }
+      }
+      chars.flip()
+      chars.hasRemaining
+    }
+  }
+}
@@ -0,0 +1,65 @@
+/*
+  Copyright (C) 2012-2013 the original author or authors.
+
+  See the LICENSE.txt file distributed with this work for additional
+  information regarding copyright ownership.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package scalaopts
+
+/**
+ * Parse results laid out by option id (see [[scalaopts.CommandLineOptionIndex]]) instead of keyed by
+ * name, so a value is read with an array load rather than a hash lookup. Ids for the options a caller
+ * is interested in are resolved once with [[scalaopts.CompiledSpecification#slotIds]].
+ *
+ * @param results the same results [[scalaopts.CompiledSpecification#parseArguments]] returns.
+ */
+final class SlotResults private[scalaopts](val results: ParseResults, options: CommandLineOptionIndex, slots: Array[List[Any]]) {
+  def success: Boolean = results.success
+  def errors: CommandLineOptionParseErrors = results.errors
+
+  /** True if the option was found at least once. */
+  def isDefined(id: Int): Boolean =
+    slots(id) ne null
+
+  /** The accumulated values of every occurrence of the option, as [[scalaopts.ParseResults#apply]] returns them. Empty if it wasn't found. */
+  def all(id: Int): List[Any] =
+    if (slots(id) ne null) slots(id) else Nil
+
+  /** As [[scalaopts.ParseResults#first]]: None if the option wasn't found. */
+  def firstOption(id: Int): Option[Any] = slots(id) match {
+    case null => None
+    case head :: _ => Some(head)
+    case Nil => options.option(id).defaultValue
+  }
+
+  /** The first occurrence's value, falling back to the option's default (or null if it has none) when it wasn't found. */
+  def first(id: Int): Any = slots(id) match {
+    case head :: _ => head
+    case _ => options.option(id).defaultValue.getOrElse(null)
+  }
+
+  /**
+   * Whether an option that takes no argument was found. An option that takes a value (e.g. a
+   * [[scalaopts.BooleanOption]] given as --x=false) is read as [[scalaopts.SlotResults#first]] reads it.
+   */
+  def boolean(id: Int): Boolean =
+    if (SlotResults.takesNoArgument(options.option(id))) isDefined(id) else first(id).asInstanceOf[Boolean]
+}
+
+private[scalaopts] object SlotResults {
+  def takesNoArgument(option: CommandLineOptionMapTypedValue): Boolean =
+    option.isFlag && option.maxNumberOfArguments == 0
+}
@@ -0,0 +1,204 @@
+/*
+  Copyright (C) 2012-2013 the original author or authors.
+
+  See the LICENSE.txt file distributed with this work for additional
+  information regarding copyright ownership.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package scalaopts
+
+import _root_.java.io._
+import common.{Default, default}
+import CommandLineOption.FinalTypedCommandLineOption
+
+/**
+ * What a [[scalaopts.SpecificationSnapshot]] can't hold for an option: how its values are parsed, its
+ * default value and (optionally) its accumulator.
+ */
+final class OptionBinding[A] private(val parser: OptionParser[A], val defaultValue: Option[A], accumulator: Option[OptionArgumentAccumulator[A, _, _]], single_initial_value: A) {
+  /** The given accumulator, otherwise the one the DSL would have used for the option's number of arguments. */
+  private[scalaopts] def accumulatorFor(single_argument: Boolean): OptionArgumentAccumulator[A, _, _] =
+    accumulator.getOrElse(if (single_argument) new SingleOptionArgumentAccumulator[A](single_initial_value) else new ListOptionArgumentAccumulator[A]())
+}
+
+object OptionBinding {
+  def apply[A: Default](parser: OptionParser[A], defaultValue: Option[A] = None): OptionBinding[A] =
+    new OptionBinding(parser, defaultValue, None, default[A])
+
+  def apply[A](parser: OptionParser[A], defaultValue: Option[A], accumulator: OptionArgumentAccumulator[A, _, _]): OptionBinding[A] =
+    new OptionBinding(parser, defaultValue, Some(accumulator), null.asInstanceOf[A])
+}
+
+/**
+ * A compact binary form of a validated specification so short-lived programs can skip building and
+ * validating it at startup. Typically written at build time:
+ * {{{
+ *   SpecificationSnapshot.write(parser, new FileOutputStream("options.bin"))
+ * }}}
+ * and loaded when the program starts, binding each option's parser by name:
+ * {{{
+ *   val parser = SpecificationSnapshot.read(getClass.getResourceAsStream("/options.bin")) {
+ *     case "size" => OptionBinding(IntegerOption())
+ *     case "verbose" => OptionBinding(BooleanOption(true), Some(false))
+ *   }
+ * }}}
+ *
+ * The snapshot holds every option's names, arity, argument bounds, dependencies and description in id
+ * order, along with the strategy it was validated against. Loading doesn't repeat the duplicate name
+ * checks and, when the configuration uses the same strategy, doesn't validate the options again.
+ * Options keep the ids they had when written.
+ */
+object SpecificationSnapshot {
+  private val MAGIC = 0x534f5054 //"SOPT"
+  private val VERSION = 1
+
+  private val REQUIRED = 0x01
+
+  /**
+   * Validates the specification (see [[scalaopts.Parser#compile]]) and writes it. The stream isn't closed.
+   *
+   * @throws IllegalArgumentException if the options do not meet the strategy's requirements.
+   */
+  def write(parser: Parser, out: OutputStream): Unit = {
+    val compiled = parser.compile()
+    val options = compiled.options
+    val data = new DataOutputStream(new BufferedOutputStream(out))
+
+    data.writeInt(MAGIC)
+    data.writeByte(VERSION)
+    writeString(data, compiled.configuration.strategy.getClass.getName)
+    writeInt(data, options.size)
+
+    var id = 0
+    while (id < options.size) {
+      val opt = options.option(id)
+      writeString(data, opt.name)
+      data.writeByte(if (opt.required) REQUIRED else 0)
+      writeInt(data, opt.arity)
+      writeInt(data, opt.minNumberOfArguments)
+      writeInt(data, opt.maxNumberOfArguments)
+      writeString(data, opt.description)
+      writeStrings(data, opt.longNames)
+      writeStrings(data, opt.shortNames)
+      writeStrings(data, opt.dependencies)
+      id += 1
+    }
+    data.flush()
+  }
+
+  def toByteArray(parser: Parser): Array[Byte] = {
+    val out = new ByteArrayOutputStream()
+    write(parser, out)
+    out.toByteArray
+  }
+
+  /**
+   * Reads a specification written by [[scalaopts.SpecificationSnapshot#write]]. Each option's parser,
+   * default value and accumulator are given by bind, which is called with the option's name once per
+   * option in id order. Streams other than byte array streams are buffered, so they may be read past the end of
+   * the snapshot. The stream isn't closed.
+   *
+   * @throws IllegalArgumentException if the stream doesn't hold a snapshot this version can read.
+   */
+  def read(in: InputStream, configuration: ParserConfiguration = CommandLineOptions.DEFAULT_PARSER_CONFIGURATION)(bind: String => OptionBinding[_]): Parser = {
+    val data = new DataInputStream(in match {
+      case _: ByteArrayInputStream | _: BufferedInputStream => in
+      case _ => new BufferedInputStream(in)
+    })
+
+    if (data.readInt() != MAGIC) {
+      throw new IllegalArgumentException("Not a specification snapshot")
+    }
+    val version = data.readUnsignedByte()
+    if (version != VERSION) {
+      throw new IllegalArgumentException("Unsupported specification snapshot version: " + version)
+    }
+    val validated = readString(data) == configuration.strategy.getClass.getName
+
+    val entries = new Array[CommandLineOptionMapValue](readInt(data))
+    var id = 0
+    while (id < entries.length) {
+      val name = readString(data)
+      val flags = data.readUnsignedByte()
+      val arity = readInt(data)
+      val min = readInt(data)
+      val max = readInt(data)
+      val description = readString(data)
+      val long_names = readStrings(data)
+      val short_names = readStrings(data)
+      val dependencies = readStrings(data)
+
+      val opt = bound(name, (flags & REQUIRED) != 0, long_names, short_names, dependencies, description, arity, min, max, bind(name))
+      entries(id) = (opt, opt.accumulator.initialValue)
+      id += 1
+    }
+
+    new Parser(configuration, CommandLineOptionIndex.inIdOrder(entries), validated)
+  }
+
+  def fromByteArray(bytes: Array[Byte], configuration: ParserConfiguration = CommandLineOptions.DEFAULT_PARSER_CONFIGURATION)(bind: String => OptionBinding[_]): Parser =
+    read(new ByteArrayInputStream(bytes), configuration)(bind)
+
+  private def bound[A](name: String, required: Boolean, long_names: List[String], short_names: List[String], dependencies: List[String], description: String, arity: Int, min: Int, max: Int, binding: OptionBinding[A]): CommandLineOptionMapTypedValue = {
+    val single_argument = min != UNBOUNDED && max != UNBOUNDED && min == 1 && max == 1
+    val accumulator = binding.accumulatorFor(single_argument).asInstanceOf[OptionArgumentAccumulator[A, Any, Any]]
+    new FinalTypedCommandLineOption(name, required, long_names, short_names, dependencies, description, arity, min, max, binding.defaultValue, binding.parser, accumulator)
+  }
+
+  //Counts and bounds are zig-zag encoded variable length ints so small values (and UNBOUNDED) take a byte.
+  private def writeInt(out: DataOutputStream, value: Int): Unit = {
+    var v = (value << 1) ^ (value >> 31)
+    while ((v & ~0x7f) != 0) {
+      out.writeByte((v & 0x7f) | 0x80)
+      v >>>= 7
+    }
+    out.writeByte(v)
+  }
+
+  private def readInt(in: DataInputStream): Int = {
+    var v = 0
+    var shift = 0
+    var b = 0
+    do {
+      b = in.readUnsignedByte()
+      v |= (b & 0x7f) << shift
+      shift += 7
+    } while ((b & 0x80) != 0)
+    (v >>> 1) ^ -(v & 1)
+  }
+
+  //DataInputStream reuses its buffers for readUTF, so a string costs no more than the string itself.
+  private def writeString(out: DataOutputStream, value: String): Unit =
+    out.writeUTF(value)
+
+  private def readString(in: DataInputStream): String =
+    in.readUTF()
+
+  private def writeStrings(out: DataOutputStream, values: List[String]): Unit = {
+    writeInt(out, values.length)
+    values.foreach(writeString(out, _))
+  }
+
+  private def readStrings(in: DataInputStream): List[String] = {
+    val count = readInt(in)
+    var values: List[String] = Nil
+    var i = 0
+    while (i < count) {
+      values = readString(in) :: values
+      i += 1
+    }
+    values.reverse
+  }
+}
@@ -0,0 +1,112 @@
+/*
+  Copyright (C) 2012-2013 the original author or authors.
+
+  See the LICENSE.txt file distributed with this work for additional
+  information regarding copyright ownership.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package scalaopts
+
+/**
+ * A subcommand (as in "git commit") whose options are only built when it's invoked. The supplier is
+ * called at most once, the first time the parser is needed, and its options are validated and indexed
+ * when that parser is first used.
+ */
+final class Subcommand(val name: String, val description: String, supplier: () => Parser) {
+  @volatile private[this] var built = false
+
+  lazy val parser: Parser = {
+    val result = supplier()
+    built = true
+    result
+  }
+
+  /** Whether the supplier has been called yet. */
+  def isBuilt: Boolean = built
+
+  override def toString: String = name
+}
+
+object Subcommand {
+  def apply(name: String, description: String = "")(supplier: => Parser): Subcommand =
+    new Subcommand(name, description, () => supplier)
+}
+
+/**
+ * Dispatches on the first argument that isn't an option or one of an option's values (as decided by
+ * the root parser's strategy, see [[scalaopts.ParserStrategy#commandIndex]]). The arguments before it
+ * are parsed by the root parser and the arguments after it by the named subcommand's parser, e.g.:
+ * {{{
+ *   --verbose commit -m message
+ * }}}
+ * parses "--verbose" with the root parser and "-m message" with the parser for "commit".
+ *
+ * Building one of these only builds the root parser, so startup doesn't grow with the number of
+ * subcommands. The subcommand must be named on the command line itself and not in a response file.
+ *
+ * @throws IllegalArgumentException if more than one subcommand has the same name.
+ */
+class CommandParser(val root: Parser, val commands: Seq[Subcommand]) {
+  private[this] val by_name = {
+    val map = new _root_.java.util.HashMap[String, Subcommand](commands.size * 2)
+    for (command <- commands) {
+      if (map.put(command.name, command) ne null) {
+        throw new IllegalArgumentException("More than one subcommand is named " + command.name)
+      }
+    }
+    map
+  }
+
+  def command(name: String): Option[Subcommand] = Option(by_name.get(name))
+
+  def parse(values: String*): CommandParseResults = parseArguments(values)
+
+  def parseArguments(values: Seq[String]): CommandParseResults = {
+    val arguments = values match {
+      case indexed: IndexedSeq[String @unchecked] => indexed
+      case _ => values.toIndexedSeq
+    }
+
+    val compiled = root.compile()
+    val index = compiled.configuration.strategy.commandIndex(arguments, compiled.options)
+    if (index < 0) {
+      new CommandParseResults(compiled.parseArguments(arguments), None, None, None)
+    } else {
+      val root_results = compiled.parseArguments(arguments.slice(0, index))
+      val name = arguments(index)
+      command(name) match {
+        case Some(command) => new CommandParseResults(root_results, Some(command), Some(command.parser.parseArguments(arguments.slice(index + 1, arguments.length))), None)
+        case None => new CommandParseResults(root_results, None, None, Some(name))
+      }
+    }
+  }
+}
+
+object CommandParser {
+  def apply(root: Parser)(commands: Subcommand*): CommandParser =
+    new CommandParser(root, commands)
+}
+
+/**
+ * @param root Results for the arguments before the subcommand (or all of them if there wasn't one).
+ * @param command The subcommand that was invoked, if any.
+ * @param commandResults Results for the arguments after the subcommand.
+ * @param unknownCommand The name given in place of a subcommand if it didn't match any of them.
+ */
+class CommandParseResults(val root: ParseResults, val command: Option[Subcommand], val commandResults: Option[ParseResults], val unknownCommand: Option[String]) {
+  def success: Boolean = root.success && unknownCommand.isEmpty && commandResults.forall(_.success)
+
+  def commandName: Option[String] = command.map(_.name)
+}
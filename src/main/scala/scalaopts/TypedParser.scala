@@ -0,0 +1,65 @@
+/*
+  Copyright (C) 2012-2013 the original author or authors.
+
+  See the LICENSE.txt file distributed with this work for additional
+  information regarding copyright ownership.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package scalaopts
+
+/**
+ * Parses straight into instances of T, typically a case class with a field per option. The mapping
+ * from slots to a T is usually generated at compile time by scalaopts.macros.TypedResults.bind, but
+ * can be written by hand:
+ * {{{
+ *   case class Options(size: Int, verbose: Boolean)
+ *
+ *   new TypedParser[Options](parser.compile(), List("size", "verbose"), (slots, ids) =>
+ *     Options(slots.first(ids(0)).asInstanceOf[Int], slots.isDefined(ids(1))))
+ * }}}
+ *
+ * @param names the option names (or field names, see [[scalaopts.CompiledSpecification#slotIds]]) whose ids are
+ *              passed to create, in the same order.
+ * @param primitives the names whose values can't be null (e.g. a field of type Int), so their options must
+ *                   have a default to fall back on when they aren't found.
+ * @throws IllegalArgumentException if a name doesn't match an option or one of primitives has no default.
+ */
+class TypedParser[T](val specification: CompiledSpecification, names: Seq[String], create: (SlotResults, Array[Int]) => T, primitives: Seq[String] = Nil) {
+  private[this] val ids = specification.slotIds(names)
+
+  {
+    //Options that take no argument are read by whether they were found, so don't need one.
+    val without_default = for ((name, id) <- primitives zip specification.slotIds(primitives); opt = specification.options.option(id) if opt.defaultValue.isEmpty && !SlotResults.takesNoArgument(opt)) yield name
+    if (!without_default.isEmpty) {
+      throw new IllegalArgumentException("The following names can't be null, so their options must have a default: " + (without_default mkString ", "))
+    }
+  }
+
+  def parse(values: String*): TypedParseResults[T] = parseArguments(values)
+
+  def parseArguments(values: Seq[String]): TypedParseResults[T] = {
+    val slots = specification.parseSlots(values)
+    new TypedParseResults(create(slots, ids), slots)
+  }
+}
+
+/**
+ * @param options the parsed values.
+ * @param slots everything else about the parse (e.g. whether it succeeded and any errors).
+ */
+final class TypedParseResults[T](val options: T, val slots: SlotResults) {
+  def success: Boolean = slots.success
+  def errors: CommandLineOptionParseErrors = slots.errors
+}
@@ -0,0 +1,128 @@
+/*
+  Copyright (C) 2012-2013 the original author or authors.
+
+  See the LICENSE.txt file distributed with this work for additional
+  information regarding copyright ownership.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package scalaopts
+
+import _root_.java.io.PrintStream
+
+/**
+ * Renders the usage text for a set of options. Every option's names are sorted and its description
+ * split into words once. The text laid out for a given program name and terminal width is cached, so
+ * showing usage again is a single print of the same string.
+ *
+ * Descriptions are wrapped to the width, continuing underneath the start of the description or, if
+ * the option's names take up more than half the width, at a small fixed indent.
+ *
+ * Thread-safe.
+ */
+final class UsageRenderer(options: CommandLineOptionMap) {
+  import UsageRenderer._
+
+  //e.g. ("--all, --everything [-a]", Array("Show", "all", "files")) in the map's order.
+  private[this] val entries: Array[(String, Array[String])] =
+    options.values.map { case (opt, _) =>
+      val long_names = opt.longNames.sorted.mkString("--", ", --", "")
+      val short_names = opt.shortNames.sorted.mkString("-", ", -", "")
+      (long_names + " [" + short_names + "]", words(opt.description))
+    }.toArray
+
+  @volatile private[this] var cached: Rendered = null
+
+  /** The usage text, laid out again only if the program name or width differs from the last call. */
+  def render(programName: String, width: Int): String = {
+    val last = cached
+    if (last != null && last.width == width && last.programName == programName) {
+      last.text
+    } else {
+      val rendered = text(programName, width)
+      cached = new Rendered(programName, width, rendered)
+      rendered
+    }
+  }
+
+  /** Prints the usage text with a single call, so it's encoded with the stream's own charset. */
+  def write(out: PrintStream, programName: String, width: Int): Unit = {
+    out.print(render(programName, width))
+    out.flush()
+  }
+
+  def text(programName: String, width: Int): String = {
+    val builder = new StringBuilder
+    builder.append("USAGE: ").append(programName).append(LINE_SEPARATOR)
+    for ((names, words) <- entries)
+      appendOption(builder, names, words, width)
+    builder.toString()
+  }
+
+  private def appendOption(builder: StringBuilder, names: String, words: Array[String], width: Int): Unit = {
+    builder.append(names).append(' ')
+
+    val indent = if (names.length + 1 <= width / 2) names.length + 1 else MINIMUM_INDENT
+    var column = names.length + 1
+    var line_empty = true
+    for (word <- words) {
+      val needed = if (line_empty) word.length else word.length + 1
+      //A word that doesn't fit goes on the next line unless it already starts one.
+      if (column + needed > width && !(line_empty && column <= indent)) {
+        builder.append(LINE_SEPARATOR)
+        for (_ <- 0 until indent)
+          builder.append(' ')
+        column = indent
+        line_empty = true
+      }
+      if (!line_empty) {
+        builder.append(' ')
+        column += 1
+      }
+      builder.append(word)
+      column += word.length
+      line_empty = false
+    }
+
+    builder.append(LINE_SEPARATOR)
+  }
+}
+
+object UsageRenderer {
+  val MINIMUM_INDENT = 4
+
+  private val LINE_SEPARATOR = System.getProperty("line.separator")
+
+  /** Splits on the same whitespace as the regular expression \s, without loading the regex classes. */
+  private def words(s: String): Array[String] = {
+    def isSpace(c: Char): Boolean = c == ' ' || c == '\t' || c == '\n' || c == '\u000b' || c == '\f' || c == '\r'
+    val found = Array.newBuilder[String]
+    var i = 0
+    while (i < s.length) {
+      while (i < s.length && isSpace(s.charAt(i))) {
+        i += 1
+      }
+      val start = i
+      while (i < s.length && !isSpace(s.charAt(i))) {
+        i += 1
+      }
+      if (i > start) {
+        found += s.substring(start, i)
+      }
+    }
+    found.result()
+  }
+
+  private final class Rendered(val programName: String, val width: Int, val text: String)
+}
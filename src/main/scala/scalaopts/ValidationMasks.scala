@@ -0,0 +1,156 @@
+/*
+  Copyright (C) 2012-2013 the original author or authors.
+
+  See the LICENSE.txt file distributed with this work for additional
+  information regarding copyright ownership.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package scalaopts
+
+/**
+ * Required options and dependencies compiled into bitmasks over option ids (see
+ * [[scalaopts.CommandLineOptionIndex]]), so that validating a parse is a few word-level operations
+ * against the set of options that were seen.
+ *
+ * Only an option's direct dependencies are checked, so cycles need no special treatment: every option
+ * in a cycle that was seen simply needs its own dependencies to have been seen too. Each option's
+ * dependency mask only keeps the words that have bits set, which keeps specifications with thousands of
+ * interdependent options small. The names of missing dependencies are only worked out for options that
+ * are actually missing some.
+ */
+private[scalaopts] final class ValidationMasks(options: CommandLineOptionIndex) {
+  import ValidationMasks._
+
+  private[this] val words = wordsFor(options.size)
+
+  private[this] val required: Array[Long] = {
+    val mask = new Array[Long](words)
+    for (id <- 0 until options.size if options.option(id).required)
+      set(mask, id)
+    mask
+  }
+
+  //Ids of the options with dependencies.
+  private[this] val dependents: Array[Int] =
+    (0 until options.size).filter(id => !options.option(id).dependencies.isEmpty).toArray
+
+  //For each dependent (in the same order): the indexes of the words in its dependency mask that have any
+  //bits set along with those words' bits.
+  private[this] val dependency_words = new Array[Array[Int]](dependents.length)
+  private[this] val dependency_bits = new Array[Array[Long]](dependents.length)
+
+  //True for a dependent that depends on something that isn't an option. That dependency is never met.
+  private[this] val unknown_dependency = new Array[Boolean](dependents.length)
+
+  //For each dependent: its dependencies in the order they were declared and their ids (NOT_FOUND if
+  //there's no such option). Only used to name the ones that are missing.
+  private[this] val dependency_names = new Array[Array[String]](dependents.length)
+  private[this] val dependency_ids = new Array[Array[Int]](dependents.length)
+
+  for (i <- 0 until dependents.length) {
+    dependency_names(i) = options.option(dependents(i)).dependencies.reverse.toArray
+    val ids = dependency_names(i).map(options.idOfOption)
+    dependency_ids(i) = ids
+    unknown_dependency(i) = ids.contains(CommandLineOptionIndex.NOT_FOUND)
+
+    val known = ids.filter(_ != CommandLineOptionIndex.NOT_FOUND)
+    val word_indexes = known.map(_ >>> 6).distinct.sorted.toArray
+    val bits = new Array[Long](word_indexes.length)
+    for (id <- known)
+      bits(_root_.java.util.Arrays.binarySearch(word_indexes, id >>> 6)) |= 1L << id
+    dependency_words(i) = word_indexes
+    dependency_bits(i) = bits
+  }
+
+  /** The ids of the options that have values. */
+  def seen(slots: Array[List[Any]]): Array[Long] = {
+    val mask = new Array[Long](words)
+    var id = 0
+    while (id < slots.length) {
+      if (slots(id) ne null) {
+        set(mask, id)
+      }
+      id += 1
+    }
+    mask
+  }
+
+  /** Required options that weren't seen, in id order. */
+  def missingRequired(seen: Array[Long]): List[CommandLineOptionMapTypedValue] = {
+    var missing = List[CommandLineOptionMapTypedValue]()
+    var word = words - 1
+    while (word >= 0) {
+      var bits = required(word) & ~seen(word)
+      while (bits != 0L) {
+        val bit = 63 - _root_.java.lang.Long.numberOfLeadingZeros(bits)
+        missing = options.option((word << 6) + bit) :: missing
+        bits &= ~(1L << bit)
+      }
+      word -= 1
+    }
+    missing
+  }
+
+  /** Options that were seen without all of their dependencies, each with the missing dependencies in the order they were declared. */
+  def missingDependencies(seen: Array[Long]): List[(CommandLineOptionMapTypedValue, List[String])] = {
+    var all_missing = List[(CommandLineOptionMapTypedValue, List[String])]()
+    var i = dependents.length - 1
+    while (i >= 0) {
+      val id = dependents(i)
+      if (isSet(seen, id) && (unknown_dependency(i) || !covers(seen, dependency_words(i), dependency_bits(i)))) {
+        all_missing = (options.option(id) -> missingDependencies(i, seen)) :: all_missing
+      }
+      i -= 1
+    }
+    all_missing
+  }
+
+  private def missingDependencies(dependent: Int, seen: Array[Long]): List[String] = {
+    val names = dependency_names(dependent)
+    val ids = dependency_ids(dependent)
+    var missing = List[String]()
+    var i = ids.length - 1
+    while (i >= 0) {
+      if (ids(i) == CommandLineOptionIndex.NOT_FOUND || !isSet(seen, ids(i))) {
+        missing = names(i) :: missing
+      }
+      i -= 1
+    }
+    missing
+  }
+}
+
+private[scalaopts] object ValidationMasks {
+  def wordsFor(bits: Int): Int =
+    (bits + 63) >>> 6
+
+  @inline def set(mask: Array[Long], bit: Int): Unit =
+    mask(bit >>> 6) |= 1L << bit
+
+  @inline def isSet(mask: Array[Long], bit: Int): Boolean =
+    (mask(bit >>> 6) & (1L << bit)) != 0L
+
+  /** True if every bit in the sparse mask given by word_indexes and bits is set in mask. */
+  def covers(mask: Array[Long], word_indexes: Array[Int], bits: Array[Long]): Boolean = {
+    var i = 0
+    while (i < word_indexes.length) {
+      if ((bits(i) & ~mask(word_indexes(i))) != 0L) {
+        return false
+      }
+      i += 1
+    }
+    true
+  }
+}
@@ -27,6 +27,9 @@ package scalaopts.common
 object ArchWordSize extends Enum {
   sealed case class EnumVal private[ArchWordSize](title: String) extends Value
 
+  override protected def nameOf(value: EnumVal): String =
+    value.title
+
   val Unknown     = EnumVal("Unknown")
   val Size8Bits   = EnumVal("Size8Bits")
   val Size16Bits  = EnumVal("Size16Bits")
@@ -31,7 +31,19 @@ trait Enum {
   def withName(name: String): Option[EnumVal] = values.find(_.name == name)
   def withNameIgnoringCase(name: String): Option[EnumVal] = values.find(_.name.equalsIgnoreCase(name))
 
+  /**
+   * Names a value without reflection. Enums that can name their values from the values themselves (or
+   * list the names by ordinal) override this. Values it returns null for are named after the field
+   * that holds them.
+   */
+  protected def nameOf(value: EnumVal): String = null
+
   private def lazyName(requestingInstance: EnumVal): String = {
+    val name = nameOf(requestingInstance)
+    if (name ne null) name else reflectiveName(requestingInstance)
+  }
+
+  private[scalaopts] def reflectiveName(requestingInstance: EnumVal): String = {
     getClass().getDeclaredFields().filter(field => classOf[Value].isAssignableFrom(field.getType())).find { f =>
       f.setAccessible(true)
       val value = f.get(this).asInstanceOf[EnumVal]
@@ -28,55 +28,58 @@ import StringUtil._
  */
 object OS extends Enum {
 
-  sealed case class EnumVal private[OS](family: OSFamily.EnumVal, platformPartName: String, variants: Seq[String] = Seq()) extends Value {
+  sealed case class EnumVal private[OS](title: String, family: OSFamily.EnumVal, platformPartName: String, variants: Seq[String] = Seq()) extends Value {
     lazy val isPOSIX = OS.isPOSIX(this)
   }
 
-  val Unknown        = EnumVal(family = OSFamily.Unknown, platformPartName = StringUtil.empty)
-
-  val Windows95      = EnumVal(family = OSFamily.Windows, platformPartName = "windows_95",    variants = List("Windows 95"))
-  val Windows98      = EnumVal(family = OSFamily.Windows, platformPartName = "windows_98",    variants = List("Windows 98"))
-  val WindowsMe      = EnumVal(family = OSFamily.Windows, platformPartName = "windows_me",    variants = List("Windows Me"))
-  val WindowsNT      = EnumVal(family = OSFamily.Windows, platformPartName = "windows_nt",    variants = List("Windows NT"))
-  val Windows2000    = EnumVal(family = OSFamily.Windows, platformPartName = "windows_2000",  variants = List("Windows 2000"))
-  val WindowsXP      = EnumVal(family = OSFamily.Windows, platformPartName = "windows_xp",    variants = List("Windows XP"))
-  val Windows2003    = EnumVal(family = OSFamily.Windows, platformPartName = "windows_2003",  variants = List("Windows 2003"))
-  val Windows2008    = EnumVal(family = OSFamily.Windows, platformPartName = "windows_2008",  variants = List("Windows 2008"))
-  val WindowsVista   = EnumVal(family = OSFamily.Windows, platformPartName = "windows_vista", variants = List("Windows Vista"))
-  val Windows7       = EnumVal(family = OSFamily.Windows, platformPartName = "windows_7",     variants = List("Windows 7"))
-  val Windows8       = EnumVal(family = OSFamily.Windows, platformPartName = "windows_8",     variants = List("Windows 8"))
-  val Windows9       = EnumVal(family = OSFamily.Windows, platformPartName = "windows_9",     variants = List("Windows 9"))
-  val Windows10      = EnumVal(family = OSFamily.Windows, platformPartName = "windows_10",     variants = List("Windows 10"))
-  val Windows11      = EnumVal(family = OSFamily.Windows, platformPartName = "windows_11",     variants = List("Windows 11"))
-  val WindowsCE      = EnumVal(family = OSFamily.Windows, platformPartName = "windows_ce",    variants = List("Windows CE"))
-  val OS2            = EnumVal(family = OSFamily.Windows, platformPartName = "os_2",          variants = List("OS/2"))
-  val WindowsUnknown = EnumVal(family = OSFamily.Windows, platformPartName = OSFamily.Windows.platformPartName)
-
-
-  val MacOSX         = EnumVal(family = OSFamily.Mac,     platformPartName = "osx",           variants = List("Mac OS", "Mac OS X"))
-  val MacUnknown     = EnumVal(family = OSFamily.Mac,     platformPartName = OSFamily.Mac.platformPartName)
-
-
-  val Linux          = EnumVal(family = OSFamily.Unix,    platformPartName = "linux",         variants = List("Linux"))
-  val MPE_iX         = EnumVal(family = OSFamily.Unix,    platformPartName = "mpe_ix",        variants = List("MPE/iX"))
-  val HP_UX          = EnumVal(family = OSFamily.Unix,    platformPartName = "hp_ux",         variants = List("HP-UX"))
-  val AIX            = EnumVal(family = OSFamily.Unix,    platformPartName = "aix",           variants = List("AIX"))
-  val FreeBSD        = EnumVal(family = OSFamily.Unix,    platformPartName = "freebsd",       variants = List("FreeBSD"))
-  val Irix           = EnumVal(family = OSFamily.Unix,    platformPartName = "irix",          variants = List("Irix"))
-  val OS_390         = EnumVal(family = OSFamily.Unix,    platformPartName = "os390",         variants = List("OS/390"))
-  val DigitalUnix    = EnumVal(family = OSFamily.Unix,    platformPartName = "digital_unix",  variants = List("Digital Unix"))
-  val Netware_4_11   = EnumVal(family = OSFamily.Unix,    platformPartName = "netware_4_11",  variants = List("NetWare 4.11"))
-  val OSF1           = EnumVal(family = OSFamily.Unix,    platformPartName = "osf1",          variants = List("OSF1"))
-  val SunOS          = EnumVal(family = OSFamily.Unix,    platformPartName = "sunos",         variants = List("SunOS"))
-  val UnixUnknown    = EnumVal(family = OSFamily.Unix,    platformPartName = OSFamily.Unix.platformPartName)
-
-
-  val Solaris        = EnumVal(family = OSFamily.Solaris, platformPartName = "solaris",       variants = List("Solaris"))
-  val SolarisUnknown = EnumVal(family = OSFamily.Solaris, platformPartName = OSFamily.Solaris.platformPartName)
-
-
-  val VMS            = EnumVal(family = OSFamily.VMS,     platformPartName = "openvms",       variants = List("OpenVMS"))
-  val VMSUnknown     = EnumVal(family = OSFamily.VMS,     platformPartName = OSFamily.VMS.platformPartName)
+  override protected def nameOf(value: EnumVal): String =
+    value.title
+
+  val Unknown        = EnumVal(title = "Unknown",        family = OSFamily.Unknown, platformPartName = StringUtil.empty)
+
+  val Windows95      = EnumVal(title = "Windows95",      family = OSFamily.Windows, platformPartName = "windows_95",    variants = List("Windows 95"))
+  val Windows98      = EnumVal(title = "Windows98",      family = OSFamily.Windows, platformPartName = "windows_98",    variants = List("Windows 98"))
+  val WindowsMe      = EnumVal(title = "WindowsMe",      family = OSFamily.Windows, platformPartName = "windows_me",    variants = List("Windows Me"))
+  val WindowsNT      = EnumVal(title = "WindowsNT",      family = OSFamily.Windows, platformPartName = "windows_nt",    variants = List("Windows NT"))
+  val Windows2000    = EnumVal(title = "Windows2000",    family = OSFamily.Windows, platformPartName = "windows_2000",  variants = List("Windows 2000"))
+  val WindowsXP      = EnumVal(title = "WindowsXP",      family = OSFamily.Windows, platformPartName = "windows_xp",    variants = List("Windows XP"))
+  val Windows2003    = EnumVal(title = "Windows2003",    family = OSFamily.Windows, platformPartName = "windows_2003",  variants = List("Windows 2003"))
+  val Windows2008    = EnumVal(title = "Windows2008",    family = OSFamily.Windows, platformPartName = "windows_2008",  variants = List("Windows 2008"))
+  val WindowsVista   = EnumVal(title = "WindowsVista",   family = OSFamily.Windows, platformPartName = "windows_vista", variants = List("Windows Vista"))
+  val Windows7       = EnumVal(title = "Windows7",       family = OSFamily.Windows, platformPartName = "windows_7",     variants = List("Windows 7"))
+  val Windows8       = EnumVal(title = "Windows8",       family = OSFamily.Windows, platformPartName = "windows_8",     variants = List("Windows 8"))
+  val Windows9       = EnumVal(title = "Windows9",       family = OSFamily.Windows, platformPartName = "windows_9",     variants = List("Windows 9"))
+  val Windows10      = EnumVal(title = "Windows10",      family = OSFamily.Windows, platformPartName = "windows_10",     variants = List("Windows 10"))
+  val Windows11      = EnumVal(title = "Windows11",      family = OSFamily.Windows, platformPartName = "windows_11",     variants = List("Windows 11"))
+  val WindowsCE      = EnumVal(title = "WindowsCE",      family = OSFamily.Windows, platformPartName = "windows_ce",    variants = List("Windows CE"))
+  val OS2            = EnumVal(title = "OS2",            family = OSFamily.Windows, platformPartName = "os_2",          variants = List("OS/2"))
+  val WindowsUnknown = EnumVal(title = "WindowsUnknown", family = OSFamily.Windows, platformPartName = OSFamily.Windows.platformPartName)
+
+
+  val MacOSX         = EnumVal(title = "MacOSX",         family = OSFamily.Mac,     platformPartName = "osx",           variants = List("Mac OS", "Mac OS X"))
+  val MacUnknown     = EnumVal(title = "MacUnknown",     family = OSFamily.Mac,     platformPartName = OSFamily.Mac.platformPartName)
+
+
+  val Linux          = EnumVal(title = "Linux",          family = OSFamily.Unix,    platformPartName = "linux",         variants = List("Linux"))
+  val MPE_iX         = EnumVal(title = "MPE_iX",         family = OSFamily.Unix,    platformPartName = "mpe_ix",        variants = List("MPE/iX"))
+  val HP_UX          = EnumVal(title = "HP_UX",          family = OSFamily.Unix,    platformPartName = "hp_ux",         variants = List("HP-UX"))
+  val AIX            = EnumVal(title = "AIX",            family = OSFamily.Unix,    platformPartName = "aix",           variants = List("AIX"))
+  val FreeBSD        = EnumVal(title = "FreeBSD",        family = OSFamily.Unix,    platformPartName = "freebsd",       variants = List("FreeBSD"))
+  val Irix           = EnumVal(title = "Irix",           family = OSFamily.Unix,    platformPartName = "irix",          variants = List("Irix"))
+  val OS_390         = EnumVal(title = "OS_390",         family = OSFamily.Unix,    platformPartName = "os390",         variants = List("OS/390"))
+  val DigitalUnix    = EnumVal(title = "DigitalUnix",    family = OSFamily.Unix,    platformPartName = "digital_unix",  variants = List("Digital Unix"))
+  val Netware_4_11   = EnumVal(title = "Netware_4_11",   family = OSFamily.Unix,    platformPartName = "netware_4_11",  variants = List("NetWare 4.11"))
+  val OSF1           = EnumVal(title = "OSF1",           family = OSFamily.Unix,    platformPartName = "osf1",          variants = List("OSF1"))
+  val SunOS          = EnumVal(title = "SunOS",          family = OSFamily.Unix,    platformPartName = "sunos",         variants = List("SunOS"))
+  val UnixUnknown    = EnumVal(title = "UnixUnknown",    family = OSFamily.Unix,    platformPartName = OSFamily.Unix.platformPartName)
+
+
+  val Solaris        = EnumVal(title = "Solaris",        family = OSFamily.Solaris, platformPartName = "solaris",       variants = List("Solaris"))
+  val SolarisUnknown = EnumVal(title = "SolarisUnknown", family = OSFamily.Solaris, platformPartName = OSFamily.Solaris.platformPartName)
+
+
+  val VMS            = EnumVal(title = "VMS",            family = OSFamily.VMS,     platformPartName = "openvms",       variants = List("OpenVMS"))
+  val VMSUnknown     = EnumVal(title = "VMSUnknown",     family = OSFamily.VMS,     platformPartName = OSFamily.VMS.platformPartName)
 
 
   def systemOSName: String = System.getProperty("os.name")
@@ -28,14 +28,17 @@ import StringUtil._
  */
 object OSFamily extends Enum {
 
-  sealed case class EnumVal private[OSFamily](platformPartName: String, isPosix: Boolean) extends Value
+  sealed case class EnumVal private[OSFamily](title: String, platformPartName: String, isPosix: Boolean) extends Value
 
-  val Unknown = EnumVal(platformPartName = StringUtil.empty, isPosix = false)
-  val Windows = EnumVal(platformPartName = "windows",        isPosix = false)
-  val Mac     = EnumVal(platformPartName = "osx",            isPosix = true)
-  val Unix    = EnumVal(platformPartName = "unix",           isPosix = true)
-  val Solaris = EnumVal(platformPartName = "solaris",        isPosix = true)
-  val VMS     = EnumVal(platformPartName = "vms",            isPosix = false)
+  override protected def nameOf(value: EnumVal): String =
+    value.title
+
+  val Unknown = EnumVal(title = "Unknown", platformPartName = StringUtil.empty, isPosix = false)
+  val Windows = EnumVal(title = "Windows", platformPartName = "windows",        isPosix = false)
+  val Mac     = EnumVal(title = "Mac",     platformPartName = "osx",            isPosix = true)
+  val Unix    = EnumVal(title = "Unix",    platformPartName = "unix",           isPosix = true)
+  val Solaris = EnumVal(title = "Solaris", platformPartName = "solaris",        isPosix = true)
+  val VMS     = EnumVal(title = "VMS",     platformPartName = "vms",            isPosix = false)
 
   def isPOSIX(family: EnumVal): Boolean = family.isPosix
   def isPOSIX(os: OS.EnumVal): Boolean = isPOSIX(os.family)
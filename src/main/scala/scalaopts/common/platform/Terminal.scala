@@ -19,17 +19,35 @@
 
 package scalaopts.common.platform
 
-import scalaopts.common.OSFamily
+import scalaopts.common.{OS, OSFamily}
 import scalaopts.common.OSFamily._
 
 /**
+ * The terminal of the platform we're running on. Dimensions are cached (see
+ * [[scalaopts.common.platform.CachingTerminal]]) and, on POSIX systems, queried again as soon as the
+ * terminal is resized.
  */
 object Terminal extends ITerminal {
-  val instance: ITerminal =
-    OSFamily.systemOSFamily match {
-      case Windows => new Win32.Terminal()
-      case _ => ITerminal.Instance
+  val instance: ITerminal = {
+    val system: ITerminal =
+      OSFamily.systemOSFamily match {
+        case Windows => new Win32.Terminal()
+        case Mac => new Posix.Terminal(Posix.TIOCGWINSZ_BSD)
+        case Solaris => new Posix.Terminal(Posix.TIOCGWINSZ_SOLARIS)
+        case Unix if OS.systemOS == OS.Linux => new Posix.Terminal(Posix.TIOCGWINSZ_LINUX)
+        case Unix if OS.systemOS == OS.FreeBSD => new Posix.Terminal(Posix.TIOCGWINSZ_BSD)
+        case Unix => new Posix.Terminal(Posix.TIOCGWINSZ_UNKNOWN)
+        case _ => ITerminal.Instance
+      }
+
+    val cached = new CachingTerminal(system)
+    if (system.isInstanceOf[Posix.Terminal]) {
+      Posix.onWindowChange(new Runnable {
+        def run(): Unit = cached.invalidate()
+      })
     }
+    cached
+  }
 
   def queryTerminalDimensions(): ITerminal.Dimension = instance.queryTerminalDimensions()
 }
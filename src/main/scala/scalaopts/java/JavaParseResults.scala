@@ -0,0 +1,206 @@
+/*
+  Copyright (C) 2012-2013 the original author or authors.
+
+  See the LICENSE.txt file distributed with this work for additional
+  information regarding copyright ownership.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package scalaopts.java
+
+import _root_.java.{util => ju}
+import _root_.java.util.concurrent.atomic.AtomicReferenceArray
+import scala.annotation.tailrec
+import scalaopts.{CommandLineOptionIndex, OptionSlotMap, ParseResults, ResponseFileArguments}
+
+/**
+ * [[scalaopts.java.IParseResults]] over the results of a compiled specification. Names are resolved to
+ * option ids through the specification's index and values are read from the id-indexed slots (see
+ * [[scalaopts.OptionSlotMap]]).
+ *
+ * An option's values are converted to a list the first time they're asked for and kept, as are its
+ * primitive arrays. Every caller gets its own copy of an array, so the kept one is never modified.
+ * Single values (getFirst, getInt, ...) are read straight from the slots. The conversions are
+ * idempotent and are kept in atomic arrays, which publish them safely, so instances can be shared
+ * between threads without locking.
+ */
+private[java] final class JavaParseResults(val results: ParseResults) extends IParseResults {
+  import JavaParseResults._
+
+  private[this] val slot_map = results.optionResults.asInstanceOf[OptionSlotMap[_]]
+  private[this] val options = slot_map.options
+  private[this] val slots = slot_map.slots
+
+  //Allocated on first use. Threads racing to allocate one only lose what the others cached.
+  @volatile private[this] var values: AtomicReferenceArray[ju.List[AnyRef]] = null
+  @volatile private[this] var arrays: AtomicReferenceArray[AnyRef] = null
+
+  def getResults: ParseResults = results
+
+  def isSuccess: Boolean = results.success
+
+  def isDefined(name: String): Boolean = {
+    val id = options.idOfOption(name)
+    id != CommandLineOptionIndex.NOT_FOUND && (slots(id) ne null)
+  }
+
+  def getValues[T](name: String): ju.List[T] = {
+    val id = options.idOfOption(name)
+    (if (id != CommandLineOptionIndex.NOT_FOUND) valuesOf(id) else ju.Collections.emptyList[AnyRef]()).asInstanceOf[ju.List[T]]
+  }
+
+  def getFirst[T](name: String): T = {
+    val id = options.idOfOption(name)
+    if (id == CommandLineOptionIndex.NOT_FOUND) {
+      null.asInstanceOf[T]
+    } else {
+      val first = if (slots(id) ne null) firstOf(slots(id)) else NONE
+      (if (first.asInstanceOf[AnyRef] ne NONE) first else options.option(id).defaultValue.getOrElse(null)).asInstanceOf[T]
+    }
+  }
+
+  @tailrec
+  private def firstOf(occurrences: List[Any]): Any = occurrences match {
+    case Nil => NONE
+    case (seq: Seq[_]) :: rest => if (seq.nonEmpty) firstOf(seq.head :: Nil) else firstOf(rest)
+    case (array: Array[_]) :: rest => if (array.length > 0) array(0) else firstOf(rest)
+    case value :: _ => value
+  }
+
+  def getInt(name: String, defaultValue: Int): Int = getFirst[Any](name) match {
+    case number: Number => number.intValue
+    case _ => defaultValue
+  }
+
+  def getLong(name: String, defaultValue: Long): Long = getFirst[Any](name) match {
+    case number: Number => number.longValue
+    case _ => defaultValue
+  }
+
+  def getDouble(name: String, defaultValue: Double): Double = getFirst[Any](name) match {
+    case number: Number => number.doubleValue
+    case _ => defaultValue
+  }
+
+  def getBoolean(name: String, defaultValue: Boolean): Boolean = getFirst[Any](name) match {
+    case value: _root_.java.lang.Boolean => value.booleanValue
+    case _ => defaultValue
+  }
+
+  def getIntArray(name: String): Array[Int] =
+    arrayOf(name, results.intArray)(_.clone())
+
+  def getLongArray(name: String): Array[Long] =
+    arrayOf(name, results.longArray)(_.clone())
+
+  def getDoubleArray(name: String): Array[Double] =
+    arrayOf(name, results.doubleArray)(_.clone())
+
+  private def arrayOf[A <: AnyRef : Manifest](name: String, create: String => Option[A])(copy: A => A): A = {
+    val id = options.idOfOption(name)
+    if (id == CommandLineOptionIndex.NOT_FOUND || (slots(id) eq null)) {
+      null.asInstanceOf[A]
+    } else {
+      var cache = arrays
+      if (cache eq null) {
+        cache = new AtomicReferenceArray[AnyRef](options.size)
+        arrays = cache
+      }
+      cache.get(id) match {
+        case array: A => copy(array)
+        case _ =>
+          val array = create(name).get
+          cache.set(id, array)
+          copy(array)
+      }
+    }
+  }
+
+  private def valuesOf(id: Int): ju.List[AnyRef] = {
+    var cache = values
+    if (cache eq null) {
+      cache = new AtomicReferenceArray[ju.List[AnyRef]](options.size)
+      values = cache
+    }
+    val cached = cache.get(id)
+    if (cached ne null) {
+      cached
+    } else {
+      val list = if (slots(id) ne null) flatten(slots(id)) else ju.Collections.emptyList[AnyRef]()
+      cache.set(id, list)
+      list
+    }
+  }
+
+  //Accumulated values (lists or arrays) are spread out so the list holds the individual values.
+  private def flatten(occurrences: List[Any]): ju.List[AnyRef] = {
+    def count(value: Any): Int = value match {
+      case seq: Seq[_] => seq.foldLeft(0)(_ + count(_))
+      case array: Array[_] => array.foldLeft(0)(_ + count(_))
+      case _ => 1
+    }
+    val flattened = new Array[AnyRef](occurrences.foldLeft(0)(_ + count(_)))
+    var i = 0
+    def add(value: Any): Unit = value match {
+      case seq: Seq[_] => seq.foreach(add)
+      case array: Array[_] => array.foreach(add)
+      case other =>
+        flattened(i) = other.asInstanceOf[AnyRef]
+        i += 1
+    }
+    occurrences.foreach(add)
+    if (flattened.length == 1) ju.Collections.singletonList(flattened(0)) else ju.Collections.unmodifiableList(ju.Arrays.asList(flattened: _*))
+  }
+
+  lazy val getOperands: ju.List[String] =
+    results.arguments match {
+      case _ if !results.hasOperands => ju.Collections.emptyList[String]()
+      case expanded: ResponseFileArguments =>
+        //Operands read from response files can only be iterated over once.
+        val operands = new ju.ArrayList[String]()
+        results.operands.foreach(operands.add)
+        ju.Collections.unmodifiableList(operands)
+      case arguments =>
+        val start = results.operandsIndex
+        new ju.AbstractList[String] with ju.RandomAccess {
+          def get(index: Int): String = {
+            if (index < 0 || index >= size) {
+              throw new IndexOutOfBoundsException(index.toString)
+            }
+            arguments(start + index)
+          }
+          def size: Int = arguments.length - start
+        }
+    }
+
+  def hasInvalidOptions: Boolean = results.anyInvalidOptions
+
+  lazy val getMissingRequired: ju.List[String] = {
+    val names = new ju.ArrayList[String]()
+    results.missingRequired.foreach(opt => names.add(opt.name))
+    ju.Collections.unmodifiableList(names)
+  }
+
+  lazy val getMissingDependencies: ju.Map[String, ju.List[String]] = {
+    val missing = new ju.LinkedHashMap[String, ju.List[String]]()
+    for ((opt, dependencies) <- results.missingDependencies)
+      missing.put(opt.name, ju.Collections.unmodifiableList(ju.Arrays.asList(dependencies: _*)))
+    ju.Collections.unmodifiableMap(missing)
+  }
+}
+
+private[java] object JavaParseResults {
+  //Marks an option without any values, as opposed to one whose first value is null.
+  private val NONE = new AnyRef
+}
@@ -19,10 +19,22 @@
 
 package scalaopts.java
 
-import scalaopts.{ListOptionArgumentAccumulator, CustomOptionParser, TypedCommandLineOption}
+import scalaopts.{ListOptionArgumentAccumulator, CustomOptionParser, OptionParser, ParserStrategy, TypedCommandLineOption}
 import collection.JavaConversions
 import scalaopts.CommandLineOption.FinalTypedCommandLineOption
 
+/**
+ * Calls a Java transform directly. A null result means the value couldn't be transformed.
+ */
+private[java] final class JavaOptionParser[T](java_parser: IOptionParser[T], java_transform: IOptionTransform[T])
+  extends CustomOptionParser[T](Option(java_parser.getDefaultValue()), java_parser.isDefaultValueUsed(), java_parser.isAssociatedValueRequired(), (s: String) => Option(java_transform.apply(s))) {
+
+  override def apply(value: String): Option[T] = {
+    val result = java_transform.apply(value)
+    if (result != null) Some(result) else if (useDefaultValue) optionDefaultValue else None
+  }
+}
+
 /**
  */
 object Translate {
@@ -30,19 +42,21 @@ object Translate {
   def asStringSeq(arr: Array[String]): Seq[String] = arr
 
   def asTypedCommandLineOption[T](opt: ICommandLineOption[T]): TypedCommandLineOption[T, Seq[T], List[T]] = {
-    val java_option_parser = opt.getOptionParser()
-    val java_default = java_option_parser.getDefaultValue()
-    val default = Option(java_default)
-    val long_names = JavaConversions.iterableAsScalaIterable(opt.getLongNames()).toList
-    val short_names = JavaConversions.iterableAsScalaIterable(opt.getShortNames()).toList
-    val dependencies = JavaConversions.iterableAsScalaIterable(opt.getDependencies).toList
-
-    val option_parser = new CustomOptionParser[T](default, java_option_parser.isDefaultValueUsed(), java_option_parser.isAssociatedValueRequired(), (s: String) => {
-      Option(java_option_parser.getTransform()) match {
-        case None => throw new IllegalStateException("Missing definition of IOptionTransform")
-        case Some(t) => Option(t(s))
-      }
-    })
+    val long_names = asList(opt.getLongNames())
+    val short_names = asList(opt.getShortNames())
+    val dependencies = asList(opt.getDependencies())
+
+    //Scala parsers are used as they are. Java transforms are called directly.
+    val option_parser: OptionParser[T] = opt.getOptionParser() match {
+      case scala_parser: ScalaOptionParser[T @unchecked] =>
+        scala_parser.getOptionParser()
+      case java_option_parser =>
+        val transform = java_option_parser.getTransform()
+        if (transform == null) {
+          throw new IllegalStateException("Missing definition of IOptionTransform")
+        }
+        new JavaOptionParser[T](java_option_parser, transform)
+    }
 
     //TODO: Fill in the accumulator -- define this for the Java side of the house
     //TODO: Fill in default value
@@ -55,13 +69,21 @@ object Translate {
       yield asTypedCommandLineOption(opt)
   }
 
-  def asParserConfiguration(configuration: IParserConfiguration): scalaopts.ParserConfiguration = {
-    //TODO: Translate to ParserStrategy instance
-    //Just create a default strategy for now...
-    //val java_parser_strategy = configuration.getStrategy()
-    //new scalaopts.ParserConfiguration()...
-    scalaopts.CommandLineOptions.DEFAULT_PARSER_CONFIGURATION
-  }
+  private def asList(names: _root_.java.util.Set[String]): List[String] =
+    if (names.isEmpty) Nil else JavaConversions.iterableAsScalaIterable(names).toList
+
+  /**
+   * @throws IllegalArgumentException if the strategy isn't one of the [[scalaopts.ParserStrategy]]s.
+   */
+  def asParserConfiguration(configuration: IParserConfiguration): scalaopts.ParserConfiguration =
+    if (configuration == null || configuration.getStrategy() == null) {
+      scalaopts.CommandLineOptions.DEFAULT_PARSER_CONFIGURATION
+    } else {
+      configuration.getStrategy() match {
+        case strategy: ParserStrategy => new scalaopts.ParserConfiguration(strategy)
+        case other => throw new IllegalArgumentException("Unsupported parser strategy: " + other.getClass.getName)
+      }
+    }
 
   def asParser[T](options: Array[ICommandLineOption[T]]): scalaopts.Parser = {
     scalaopts.CommandLineOptions.applySeq(asTypedCommandLineOptionSeq(options))
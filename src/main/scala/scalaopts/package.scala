@@ -20,7 +20,7 @@
 import language.implicitConversions
 
 import scalaopts.common.Default
-import scalaopts.strategy.GNUParserStrategy
+import scalaopts.strategy.{GNUParserStrategy, POSIXParserStrategy}
 
 /** Provides classes for command line argument parsing.
   * Also provides implicits for String processing.
@@ -63,6 +63,11 @@ package object scalaopts {
       strategy = new GNUParserStrategy()
     )
 
+    /** Strict POSIX getopt() style parsing (see [[scalaopts.strategy.POSIXParserStrategy]]). */
+    object POSIX_PARSER_CONFIGURATION extends ParserConfiguration(
+      strategy = new POSIXParserStrategy()
+    )
+
     def apply(args: CommandLineOptionMapTypedValue*): CommandLineSpecification = applySeq(args)
     def apply(configuration: ParserConfiguration)(args: CommandLineOptionMapTypedValue*): CommandLineSpecification = applySeq(configuration)(args)
 
@@ -0,0 +1,75 @@
+/*
+  Copyright (C) 2012-2013 the original author or authors.
+
+  See the LICENSE.txt file distributed with this work for additional
+  information regarding copyright ownership.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package scalaopts.strategy
+
+import scalaopts.common.StringUtil
+
+/**
+ * A position within the application arguments: the index of the current argument and a character
+ * offset into it.
+ *
+ * Strategies use this to walk the original arguments in place. Bundled short options ("-abc") and
+ * values attached to an option ("-ofoo") are visited by moving the offset instead of building new
+ * strings for the remainder of the argument.
+ *
+ * Not thread-safe -- create one per parse.
+ */
+final class ArgumentCursor(val arguments: IndexedSeq[String]) {
+  private[this] var current_index = 0
+  private[this] var current_offset = 0
+  private[this] var next_index = 1
+
+  def index: Int = current_index
+  def offset: Int = current_offset
+
+  /**
+   * Index of the argument that follows the current token. This is normally index + 1, but a token
+   * found part way through an argument may be followed by arguments further along (e.g. when the
+   * option before it already consumed values).
+   */
+  def next: Int = next_index
+
+  /**
+   * True if the cursor is positioned on an argument. Uses lengthCompare so arguments that are produced
+   * lazily (see [[scalaopts.ResponseFileArguments]]) are only read as far as the cursor has gone.
+   */
+  def hasCurrent: Boolean = arguments.lengthCompare(current_index) > 0
+
+  /** The entire argument the cursor is positioned on (ignoring the offset). */
+  def current: String = arguments(current_index)
+
+  /** The current argument starting at the offset. Only allocates if the offset is non-zero. */
+  def token: String = {
+    val arg = current
+    if (current_offset == 0) arg
+    else if (current_offset == arg.length) StringUtil.empty
+    else arg.substring(current_offset)
+  }
+
+  def moveTo(index: Int, offset: Int = 0, next: Int = -1): Unit = {
+    current_index = index
+    current_offset = offset
+    next_index = if (next >= 0) next else index + 1
+  }
+
+  /** Moves to the start of the argument following the current token. */
+  def advance(): Unit =
+    moveTo(next_index)
+}
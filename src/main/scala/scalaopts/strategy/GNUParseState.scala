@@ -0,0 +1,117 @@
+/*
+  Copyright (C) 2012-2013 the original author or authors.
+
+  See the LICENSE.txt file distributed with this work for additional
+  information regarding copyright ownership.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package scalaopts.strategy
+
+import scalaopts._
+
+/**
+ * An immutable snapshot of a [[scalaopts.strategy.GNUParserStrategy]] parse taken between arguments.
+ * Obtained from [[scalaopts.strategy.GNUParserStrategy#begin]].
+ *
+ * Feeding an argument returns a new state and leaves this one untouched. A caller that keeps the
+ * state after every argument (e.g. a shell completion engine re-parsing on every keystroke) therefore
+ * only processes what was added since its last checkpoint. results is what a full parse of the
+ * arguments fed so far would produce and expected says what the next argument can be.
+ *
+ * Accumulators are called on the feeding thread as values are found, including async accumulators,
+ * and are called again whenever the same state is resumed more than once.
+ *
+ * @param position the number of arguments fed so far.
+ * @param pending the option that is still taking values, if any.
+ * @param stopped true once option processing has stopped (a "--" terminator, a lone "-" or an error).
+ *                Any further arguments are operands or ignored.
+ */
+final class GNUParseState private[strategy](
+  val strategy: GNUParserStrategy,
+  val options: CommandLineOptionIndex,
+  val configuration: ParserConfiguration,
+  val position: Int,
+  val pending: Option[GNUParseState.Pending],
+  private[strategy] val bundle: GNUParseState.Bundle,
+  private[strategy] val processed: CommandLineOptionResults,
+  val stopped: Boolean) {
+  import GNUParseState._
+
+  //Shared with the states resumed from this one, which copy them before writing.
+  private[strategy] def slots: Array[List[Any]] =
+    processed.results.asInstanceOf[OptionSlotMap[_]].slots
+
+  /** Processes the next argument and returns the resulting state. */
+  def feed(argument: String): GNUParseState =
+    if (stopped) {
+      new GNUParseState(strategy, options, configuration, position + 1, pending, bundle, processed, stopped)
+    } else {
+      strategy.resume(this, argument)
+    }
+
+  def feedAll(arguments: Seq[String]): GNUParseState =
+    arguments.foldLeft(this)(_ feed _)
+
+  /** What the next argument is expected to be. */
+  def expected: Expected =
+    if (stopped) {
+      if (processed.operandsIndex >= 0) ExpectOperand else ExpectNothing
+    } else {
+      pending match {
+        case Some(p) => ExpectValue(p.option, !p.option.isMinNumberOfArgumentsUnbounded && p.valuesFound < p.option.minNumberOfArguments)
+        case None => ExpectOption
+      }
+    }
+
+  /** The accumulated results of every completed occurrence of each option, in the order they were found. */
+  def accumulated: Map[String, Seq[Any]] =
+    processed.results.map(entry => entry._1 -> entry._2.getOrElse(List()).reverse)
+
+  /** The same results a full parse of the arguments fed so far would return. */
+  lazy val results: CommandLineOptionResults =
+    if (pending.isDefined) strategy.complete(this) else ParseRecorder.reversed(processed, true)
+}
+
+object GNUParseState {
+  /**
+   * An option that has been found and can still take values.
+   *
+   * @param accumulation what the option's accumulator has built from the values found so far.
+   */
+  final case class Pending(option: CommandLineOptionMapTypedValue, valuesFound: Int, valuesRemaining: Int, accumulation: Any)
+
+  /** The rest of a bundle of short options (e.g. "bc" in "-abc") that comes after the pending option's values. */
+  private[strategy] final case class Bundle(argument: String, index: Int, position: Int)
+
+  sealed trait Expected
+  case object ExpectOption extends Expected
+  /** @param required true if the option hasn't received its minimum number of values. */
+  final case class ExpectValue(option: CommandLineOptionMapTypedValue, required: Boolean) extends Expected
+  case object ExpectOperand extends Expected
+  case object ExpectNothing extends Expected
+
+  /**
+   * The arguments a resumed parse can see: the one being fed (if any) and the argument holding a
+   * deferred bundle. Nothing else before the state's position is looked at again.
+   */
+  private[strategy] final class ResumedArguments(val length: Int, last: String, bundle: Bundle) extends IndexedSeq[String] {
+    def apply(index: Int): String =
+      if (last != null && index == length - 1) last
+      else if (bundle != null && index == bundle.index) bundle.argument
+      else throw new IndexOutOfBoundsException(index.toString)
+
+    override def lengthCompare(len: Int): Int = length - len
+  }
+}
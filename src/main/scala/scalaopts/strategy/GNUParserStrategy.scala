@@ -54,21 +54,31 @@ import com.dongxiguo.fastring.Fastring.Implicits._
  *
  * To specify an argument for a long option, write ‘--name=value’. This syntax
  * enables a long option to accept an argument that is itself optional.
+ *
+ * Abbreviations are resolved through the specification's [[scalaopts.LongNameTrie]]. An abbreviation
+ * shared by several options is reported with the names it could be, and a long name that isn't
+ * recognized is reported with the closest long names to suggest instead.
  */
 class GNUParserStrategy extends ParserStrategy {
-  //Configure the logger.
-  private[GNUParserStrategy] implicit val (logger, formatter, appender) = ZeroLoggerFactory.newLogger
+  import GNUParserStrategy._
 
   val SHORT_OPTION_PREFIX = "-"
   val LONG_OPTION_PREFIX  = "--"
   val NON_OPTION_ARGUMENT = "-"
   val TERMINATOR          = "--"
 
-  def isTerminator(s: String): Boolean = TERMINATOR.equals(s)
-  def isNonOptionArgument(s: String): Boolean = NON_OPTION_ARGUMENT.equals(s)
-  def isLongCommandLineOption(s: String): Boolean = s.startsWith(LONG_OPTION_PREFIX)
-  def isShortCommandLineOption(s: String): Boolean = s.startsWith(SHORT_OPTION_PREFIX)
-  def isCommandLineOption(s: String): Boolean = isLongCommandLineOption(s) || isShortCommandLineOption(s)
+  def isTerminator(s: String): Boolean = isTerminator(s, 0)
+  def isNonOptionArgument(s: String): Boolean = isNonOptionArgument(s, 0)
+  def isLongCommandLineOption(s: String): Boolean = isLongCommandLineOption(s, 0)
+  def isShortCommandLineOption(s: String): Boolean = isShortCommandLineOption(s, 0)
+  def isCommandLineOption(s: String): Boolean = isCommandLineOption(s, 0)
+
+  //The same checks applied to the portion of s beginning at offset.
+  def isTerminator(s: String, offset: Int): Boolean = s.length - offset == TERMINATOR.length && s.startsWith(TERMINATOR, offset)
+  def isNonOptionArgument(s: String, offset: Int): Boolean = s.length - offset == NON_OPTION_ARGUMENT.length && s.startsWith(NON_OPTION_ARGUMENT, offset)
+  def isLongCommandLineOption(s: String, offset: Int): Boolean = s.startsWith(LONG_OPTION_PREFIX, offset)
+  def isShortCommandLineOption(s: String, offset: Int): Boolean = s.startsWith(SHORT_OPTION_PREFIX, offset)
+  def isCommandLineOption(s: String, offset: Int): Boolean = isLongCommandLineOption(s, offset) || isShortCommandLineOption(s, offset)
 
   def validateOptions(options: CommandLineOptionMap): Boolean = {
     //Validate that all short names are of length 1 and each name is alphanumeric.
@@ -88,278 +98,379 @@ class GNUParserStrategy extends ParserStrategy {
     true
   }
 
+  /**
+   * Processes the arguments as usual, but only counting each option's occurrences, and stops at the
+   * first argument that isn't an option or one of an option's values. Anything else that stops option
+   * processing ("--", a lone "-", an unknown option or an option given more times than its arity
+   * allows) ends the search.
+   *
+   * @see [[scalaopts.ParserStrategy#commandIndex]]
+   */
+  override def commandIndex(application_arguments: IndexedSeq[String], options: CommandLineOptionIndex): Int =
+    processOptions(application_arguments, options, new ParserConfiguration(this, ParserLogger.Off), null, null, false, true).processed.operandsIndex
+
   /**
    * @see [[scalaopts.ParserStrategy]]
    */
-  def processOptions(application_arguments: Stream[String], command_line_options: CommandLineOptionMap): CommandLineOptionResults = {
-    type OptionArgumentsProcessingResult = (Stream[String], CommandLineOptionMap, CommandLineOptionResults)
-    type SingleOptionArgumentProcessingResult = (CommandLineOptionMap, _)
+  def processOptions(application_arguments: Stream[String], command_line_options: CommandLineOptionMap): CommandLineOptionResults =
+    processOptions(application_arguments.toIndexedSeq, command_line_options)
 
-    val findCommandLineOption = findMatchingCommandLineOption(command_line_options)_
-    val findCommandLineOptionByLongName = findMatchingCommandLineOptionByLongName(command_line_options)_
-    val findCommandLineOptionByShortName = findMatchingCommandLineOptionByShortName(command_line_options)_
+  /**
+   * Walks the original arguments with an [[scalaopts.strategy.ArgumentCursor]]. Bundled short options
+   * and attached values are visited by moving the cursor's offset within the current argument, so the
+   * only strings created are the values actually handed to option parsers.
+   *
+   * @see [[scalaopts.ParserStrategy]]
+   */
+  override def processOptions(application_arguments: IndexedSeq[String], command_line_options: CommandLineOptionMap): CommandLineOptionResults =
+    processOptions(application_arguments, command_line_options, new ParserConfiguration(this))
+
+  /**
+   * Diagnostic messages go to the configuration's [[scalaopts.ParserLogger]]. Every message is
+   * guarded by the logger's enabled flag so nothing is formatted when logging is off.
+   *
+   * The listener is told about an option as soon as it reaches its arity since any further occurrences
+   * are ignored.
+   *
+   * @see [[scalaopts.ParserStrategy]]
+   */
+  override def processOptions(application_arguments: IndexedSeq[String], command_line_options: CommandLineOptionMap, configuration: ParserConfiguration, listener: ParseListener): CommandLineOptionResults =
+    //Resolve names through the precomputed index instead of scanning the map for every token.
+    ParseRecorder.reversed(processOptions(application_arguments, CommandLineOptionIndex(command_line_options), configuration, listener, null, false, false).processed, false)
+
+  /**
+   * Starts an incremental parse: arguments are fed one at a time and the state after each can be kept
+   * and resumed later. Pass a compiled specification's options to avoid indexing them again.
+   *
+   * @see [[scalaopts.strategy.GNUParseState]]
+   */
+  def begin(command_line_options: CommandLineOptionMap, configuration: ParserConfiguration = new ParserConfiguration(this)): GNUParseState = {
+    val index = CommandLineOptionIndex(command_line_options)
+    new GNUParseState(this, index, configuration, 0, None, null, CommandLineOptionResults(OptionSlotMap.strategyResults(index, new Array(index.size)), Map()), false)
+  }
+
+  private[strategy] def resume(state: GNUParseState, argument: String): GNUParseState =
+    processOptions(new GNUParseState.ResumedArguments(state.position + 1, argument, state.bundle), state.options, state.configuration, null, state, true, false)
+
+  /** Finishes the state's pending option as if there were no more arguments. */
+  private[strategy] def complete(state: GNUParseState): CommandLineOptionResults =
+    ParseRecorder.reversed(processOptions(new GNUParseState.ResumedArguments(state.position, null, state.bundle), state.options, state.configuration, null, state, false, false).processed, true)
+
+  /**
+   * Processes the arguments, starting from the given state (if not null) instead of the first argument.
+   * When suspend is true and the arguments run out while an option can still take values, the option
+   * is left pending in the returned state rather than finished.
+   *
+   * When command is true, processing stops at the first argument that isn't an option or one of an
+   * option's values and the returned state's operands index is that argument's (or -1 if processing
+   * stopped for any other reason). Nothing is parsed or accumulated.
+   *
+   * Values are accumulated and errors recorded by a [[scalaopts.strategy.ParseRecorder]], which carries
+   * on from the given state's results.
+   */
+  private def processOptions(application_arguments: IndexedSeq[String], index: CommandLineOptionIndex, configuration: ParserConfiguration, listener: ParseListener, from: GNUParseState, suspend: Boolean, command: Boolean): GNUParseState = {
+    val logger = configuration.logger
+    val cursor = new ArgumentCursor(application_arguments)
+    val recorder = new ParseRecorder(index, configuration, listener, from, command)
+    var operands_index = if (from != null) from.processed.operandsIndex else -1
+    var stopped = false
+    var pending: GNUParseState.Pending = null
+    var bundle: GNUParseState.Bundle = null
+
+    //Only the command is an operand when looking for one.
+    def operandsFrom(i: Int): Unit =
+      operands_index = if (command) -1 else i
+
+    def start(): Unit =
+      if (from == null || from.pending.isEmpty) {
+        cursor.moveTo(if (from != null) from.position else 0)
+        processOptions0()
+      } else {
+        val resumed = from.pending.get
+        cursor.moveTo(from.position)
+        //The state may be resumed again, so it keeps its own copy of an accumulation that's added to in place.
+        processOptionArguments(index.idOfOption(resumed.option.name), resumed.valuesFound, resumed.valuesRemaining, resumed.option.accumulator.copy(resumed.accumulation))
+        if (pending != null) {
+          bundle = from.bundle
+        } else if (from.bundle == null || processShortOptions(from.bundle.argument, from.bundle.index, from.bundle.position, cursor.index)) {
+          processOptions0()
+        } else {
+          stopped = true
+        }
+      }
 
     @tailrec
-    def processOptions0(application_arguments: Stream[String], command_line_options: CommandLineOptionMap, results: CommandLineOptionResults): CommandLineOptionResults = {
-      application_arguments match {
-        case potential_option #:: tail if potential_option.isNonEmpty && isCommandLineOption(potential_option) => {
-          logger.info(fast"Examining $potential_option")
+    def processOptions0(): Unit = {
+      if (cursor.hasCurrent) {
+        val arg = cursor.current
+        val start = cursor.offset
 
-          if (isTerminator(potential_option)) {
+        if (start < arg.length && isCommandLineOption(arg, start)) {
+          if (logger.isInfoEnabled) logger.info(fast"Examining ${cursor.token}")
+
+          if (isTerminator(arg, start)) {
 
             //No more option parsing if we hit a "--", everything from here on out should be considered
-            //a non-option argument.
-            //
-            //We should do something more intelligent with this -- provide a stream for non-option arguments?
-            logger.info("Found terminator")
-            results
+            //a non-option argument. The operands are left untouched for the app to iterate over.
+            if (logger.isInfoEnabled) logger.info("Found terminator")
+            operandsFrom(cursor.next)
+            stopped = true
 
-          } else if (isNonOptionArgument(potential_option)) {
+          } else if (isNonOptionArgument(arg, start)) {
 
             //Treat as a non-option argument. IOW, there's no value for this guy -- just let the
-            //app process it.
-            //
-            //We should do something more intelligent with this -- provide a stream for non-option arguments?
-            logger.info("Found non-option argument")
-            results
+            //app process it along with everything that follows.
+            if (logger.isInfoEnabled) logger.info("Found non-option argument")
+            operandsFrom(cursor.index)
+            stopped = true
 
-          } else if (isLongCommandLineOption(potential_option)) {
+          } else if (isLongCommandLineOption(arg, start)) {
 
             //Begin parsing long command line options. These are prefixed with a "--"
             //and may optionally have an equals with an option argument following it.
-            val opt = stripLeadingHyphens(potential_option)
-
-            //Divide up the option into the name and value if it contains an equals sign.
-            val (name, value, equals_found) = splitAtEquals(opt)
-
-            logger.info(fast"Found long option (name: $name, value: $value)")
-
-            //Attempt to lookup the option and hopefully it exists.
-            findCommandLineOptionByLongName(name) match {
-              //Unable to find the option.
-              case None => {
-                unrecognizedOption(name)
-                results.copy(errors = results.errors.updated(ParserError.InvalidOptions, ParserError.InvalidOptions.message))
-              }
-              //Found the option.
-              case Some((command_line_option, accumulated_values)) => {
-                if (!hasReachedMaximumArity(command_line_option, results)) {
-                  //If there's an equals sign then process this value and any remaining required values
-                  if (equals_found) {
-
-                    //We found at least one option argument, so evaluate it.
-                    val (revised_option_map, revised_accumulation) = processSingleOptionArgument(command_line_options, command_line_option, value, accumulated_values)
-
-                    //Evaluate any other remaining arguments.
-                    val (revised_tail, revised_option_map_2, revised_results) = processOptionArguments(revised_option_map, command_line_option, 1, command_line_option.maxNumberOfArguments - 1, revised_accumulation, results, tail)
-                    processOptions0(revised_tail, revised_option_map_2, revised_results)
-                  } else if (command_line_option.isFlag) {
-                    //This is a flag, but it should still be evaluated.
-                    val (revised_option_map, revised_accumulation) = processSingleOptionArgument(command_line_options, command_line_option, empty, accumulated_values)
-                    val revised_results = processOptionArgumentsDone(command_line_option, revised_accumulation, results)
-
-                    //Continue processing.
-                    processOptions0(tail, revised_option_map, revised_results)
-                  } else {
-                    invalidFormat(name, "Missing equals sign for option")
-                    results
-                  }
-                } else {
-                  exceededMaximumArity(name, command_line_option.arity)
-                  results
-                }
-              }
+            if (processLongOption(arg, skipLeadingHyphens(arg, start), cursor.next)) {
+              processOptions0()
+            } else {
+              stopped = true
             }
 
-          } else if (isShortCommandLineOption(potential_option)) {
+          } else {
 
             //Get the list of 1+ options
             //Recall that an option like "-abc" is actually equivalent to "-a -b -c" (assuming they're all flags)
-            val potentially_multiple_options = stripLeadingHyphens(potential_option)
-
-            logger.info(fast"Found short option(s): $potentially_multiple_options")
+            if (logger.isInfoEnabled) logger.info(fast"Found short option(s): ${arg.substring(start + SHORT_OPTION_PREFIX.length)}")
 
-            //Check if the first character is an option and *NOT* a flag. If so, treat the rest as a value for that option.
-            //Otherwise, pick it off, prepend to the arg stream a hyphen and the rest of the current arg and continue processing.
-            potentially_multiple_options.headOption match {
-              case None => {
-                //Nothing to see here...move along...
-                //Apparently there's nothing left to examine.
-                processOptions0(tail, command_line_options, results)
-              }
-              case Some(char_name) => {
-                //Convert the character to a string.
-                val name = char_name.toString
-
-                //Do we have a short name option by this name?
-                findCommandLineOptionByShortName(name) match {
-                  case None => {
-                    //I don't know who you're talking about so error out of here.
-                    unrecognizedOption(name)
-                    results.copy(errors = results.errors.updated(ParserError.InvalidOptions, ParserError.InvalidOptions.message))
-                  }
-                  case Some((command_line_option, accumulated_values)) => {
-                    //Found an option by that name. Excellent.
-                    //Let's see if you're a flag or not. If you're not, then the remaining
-                    //text is a value.
-                    logger.fine(fast"Recognized option (name: ${command_line_option.name})")
-
-                    if (!hasReachedMaximumArity(command_line_option, results)) {
-
-                      val remaining = potentially_multiple_options.tail
-
-                      if (!command_line_option.isFlag) {
-                          val (revised_tail, revised_option_map, revised_results) = processOptionArguments(command_line_options, command_line_option, 0, command_line_option.maxNumberOfArguments, command_line_option.accumulator.initialValue, results, remaining #:: tail)
-                          processOptions0(revised_tail, revised_option_map, revised_results)
-                      } else {
-                        //This is a flag, but it should still be evaluated.
-                        val (revised_option_map, revised_accumulation) = processSingleOptionArgument(command_line_options, command_line_option, empty, accumulated_values)
-
-                        //Cycle around again, fooling the code into thinking that we're looking at another
-                        //short name. This could result in some interesting scenarios. e.g.:
-                        //-ooo: Is that the same flag 3 times? Or is it -o with a value of "oo"?
-                        //-abc where a is a flag and b is not: Should c be a value for b then?
-                        if (remaining.isNonEmpty) {
-                          val (revised_tail, revised_option_map_2, revised_results) = processOptionArguments(revised_option_map, command_line_option, 0, command_line_option.maxNumberOfArguments, revised_accumulation, results, tail)
-                          processOptions0((SHORT_OPTION_PREFIX + remaining) #:: revised_tail, revised_option_map_2, revised_results)
-                        } else {
-                          val (revised_tail, revised_option_map_2, revised_results) = processOptionArguments(revised_option_map, command_line_option, 0, command_line_option.maxNumberOfArguments, revised_accumulation, results, tail)
-                          processOptions0(revised_tail, revised_option_map_2, revised_results)
-                        }
-                      }
-                    } else {
-                      exceededMaximumArity(command_line_option.name, command_line_option.arity)
-                      results
-                    }
-                  }
-                }
-              }
+            if (processShortOptions(arg, cursor.index, start + SHORT_OPTION_PREFIX.length, cursor.next)) {
+              processOptions0()
+            } else {
+              stopped = true
             }
 
-          } else {
-
-            processOptions0(tail, command_line_options, results)
+          }
+        } else if (command && start == 0) {
+          if (logger.isInfoEnabled) logger.info(fast"Found command: $arg")
+          operands_index = cursor.index
+          stopped = true
+        } else {
+          recorder.unrecognizedOption(cursor.token)
+          recorder.invalidOption()
+          cursor.advance()
+          processOptions0()
+        }
+      }
+    }
 
+    /**
+     * Processes a long option whose name begins at name_start in arg. Values that aren't attached with an
+     * equals sign are taken from the arguments beginning at next.
+     *
+     * @return false if option processing should stop.
+     */
+    def processLongOption(arg: String, name_start: Int, next: Int): Boolean = {
+      //Divide up the option into the name and value if it contains an equals sign.
+      val equals_index = arg.indexOf('=', name_start)
+      val equals_found = equals_index >= 0
+      val name_end = if (equals_found) equals_index else arg.length
+
+      if (logger.isInfoEnabled) logger.info(fast"Found long option (name: ${arg.substring(name_start, name_end)}, value: ${if (equals_found) arg.substring(equals_index + 1) else empty})")
+
+      //Attempt to lookup the option (or the one option it's an abbreviation of) and hopefully it exists.
+      val id = index.idOfLongNameOrPrefix(arg, name_start, name_end)
+      if (id == CommandLineOptionIndex.NOT_FOUND) {
+        //Unable to find the option.
+        val name = arg.substring(name_start, name_end)
+        recorder.unrecognizedOption(name, index.longNameTrie.suggestions(name, suggestionDistance(name), MAX_SUGGESTIONS))
+        recorder.invalidOption()
+        false
+      } else if (id == CommandLineOptionIndex.AMBIGUOUS) {
+        val name = arg.substring(name_start, name_end)
+        recorder.ambiguousOption(name, index.longNameTrie.namesWithPrefix(name))
+        recorder.invalidOption()
+        false
+      } else {
+        //Found the option.
+        val command_line_option = index.option(id)
+        val accumulated_values = recorder.initialAccumulation(id)
+
+        if (!recorder.hasReachedMaximumArity(id)) {
+          //If there's an equals sign then process this value and any remaining required values
+          if (equals_found) {
+
+            //We found at least one option argument, so evaluate it.
+            val revised_accumulation = recorder.accumulate(id, arg, equals_index + 1, accumulated_values)
+
+            //Evaluate any other remaining arguments.
+            cursor.moveTo(next)
+            processOptionArguments(id, 1, command_line_option.maxNumberOfArguments - 1, revised_accumulation)
+            true
+          } else if (command_line_option.isFlag) {
+            //This is a flag, but it should still be evaluated.
+            val revised_accumulation = recorder.accumulate(id, empty, 0, accumulated_values)
+            recorder.done(id, revised_accumulation)
+
+            //Continue processing.
+            cursor.moveTo(next)
+            true
+          } else {
+            invalidFormat(command_line_option.name, "Missing equals sign for option")
+            false
           }
+        } else {
+          recorder.exceededMaximumArity(command_line_option.name, command_line_option.arity)
+          false
         }
-        case potential_option #:: tail => {
-          unrecognizedOption(potential_option)
-          processOptions0(tail, command_line_options, results.copy(errors = results.errors.updated(ParserError.InvalidOptions, ParserError.InvalidOptions.message)))
+      }
+    }
+
+    /**
+     * Processes the short option at the given position in arg along with any that are bundled after it.
+     * Values that aren't attached to the option are taken from the arguments beginning at next.
+     *
+     * Bundles are processed as if they were separate options, which could result in some interesting
+     * scenarios. e.g.:
+     * -ooo: Is that the same flag 3 times? Or is it -o with a value of "oo"?
+     * -abc where a is a flag and b is not: Should c be a value for b then?
+     *
+     * @return false if option processing should stop.
+     */
+    @tailrec
+    def processShortOptions(arg: String, arg_index: Int, position: Int, next: Int): Boolean = {
+      if (position >= arg.length) {
+        //Reached the end of the bundle.
+        true
+      } else if (arg.charAt(position) == SHORT_OPTION_PREFIX.charAt(0)) {
+        if (position == arg.length - 1) {
+          //A trailing hyphen reads as "-a --", so it terminates option processing.
+          if (logger.isInfoEnabled) logger.info("Found terminator")
+          operandsFrom(next)
+          false
+        } else {
+          processLongOption(arg, skipLeadingHyphens(arg, position), next)
         }
-        case _ => {
-          results
+      } else {
+        //Do we have a short name option by this name?
+        val id = index.idOfShortName(arg.charAt(position))
+        if (id == CommandLineOptionIndex.NOT_FOUND) {
+          //I don't know who you're talking about so error out of here.
+          recorder.unrecognizedOption(arg.charAt(position).toString)
+          recorder.invalidOption()
+          false
+        } else {
+          //Found an option by that name. Excellent.
+          //Let's see if you're a flag or not. If you're not, then the remaining
+          //text is a value.
+          val command_line_option = index.option(id)
+          if (logger.isFineEnabled) logger.fine(fast"Recognized option (name: ${command_line_option.name})")
+
+          if (!recorder.hasReachedMaximumArity(id)) {
+
+            val remaining = position + 1
+
+            if (!command_line_option.isFlag) {
+              //Whatever text is left in this argument (even if there's none) is the first candidate value,
+              //followed by the arguments at next.
+              cursor.moveTo(arg_index, remaining, next)
+              processOptionArguments(id, 0, command_line_option.maxNumberOfArguments, recorder.initialAccumulation(id))
+              true
+            } else {
+              //This is a flag, but it should still be evaluated.
+              val revised_accumulation = recorder.accumulate(id, empty, 0, recorder.initialAccumulation(id))
+              cursor.moveTo(next)
+              processOptionArguments(id, 0, command_line_option.maxNumberOfArguments, revised_accumulation)
+
+              //Continue with the rest of the bundle, fooling the code into thinking that we're looking at another
+              //short name. Any values consumed above come before whatever follows the rest of the bundle, so if
+              //the flag is still waiting for values the rest of the bundle waits too.
+              if (pending != null) {
+                if (remaining < arg.length) {
+                  bundle = GNUParseState.Bundle(arg, arg_index, remaining)
+                }
+                true
+              } else {
+                processShortOptions(arg, arg_index, remaining, cursor.index)
+              }
+            }
+          } else {
+            recorder.exceededMaximumArity(command_line_option.name, command_line_option.arity)
+            false
+          }
         }
       }
     }
 
-    def processOptionArguments(map: CommandLineOptionMap, mapValue: CommandLineOptionMapTypedValue, valuesFound: Int, valuesRemaining: Int, accumulatedValues: Any, results: CommandLineOptionResults, args: Stream[String]): OptionArgumentsProcessingResult = {
+    /**
+     * Evaluates option arguments beginning at the cursor's position. On return the cursor is left on the
+     * first argument that was not consumed so the caller can continue inspecting the arguments at the point
+     * where we've left off.
+     */
+    def processOptionArguments(id: Int, valuesFound: Int, valuesRemaining: Int, accumulatedValues: Any): Unit = {
+      val mapValue = index.option(id)
 
       @tailrec
-      def processOptionArguments0(valuesFound: Int, valuesRemaining: Int, revised: SingleOptionArgumentProcessingResult, results: CommandLineOptionResults, args: Stream[String]): OptionArgumentsProcessingResult = {
-        logger.finer("processing remaining option arguments")
-
-        val accumulatedValues = revised._2
-
-        args match {
-          case arg #:: tail if !isCommandLineOption(arg) && findCommandLineOption(arg).isEmpty => {
-            logger.finer(fast"found option argument: $arg")
+      def processOptionArguments0(valuesFound: Int, valuesRemaining: Int, accumulatedValues: Any): Unit = {
+        if (logger.isFinerEnabled) logger.finer("processing remaining option arguments")
 
-            //Ensure we haven't exceeded the max number of arguments for this option.
-            if (mapValue.isMaxNumberOfArgumentsUnbounded || valuesRemaining > 0) {
-              val revised_by_single = processSingleOptionArgument(map, mapValue, arg, accumulatedValues)
-              processOptionArguments0(if (!mapValue.isMinNumberOfArgumentsUnbounded) min(valuesFound + 1, mapValue.minNumberOfArguments) else UNBOUNDED, if (!mapValue.isMaxNumberOfArgumentsUnbounded) max(valuesRemaining - 1, -1) else UNBOUNDED, revised_by_single, results, tail)
-            } else {
-              if (!mapValue.isMaxNumberOfArgumentsUnbounded && mapValue.maxNumberOfArguments > 0) {
-                exceededMaximumNumberOfArguments(mapValue.name, mapValue.maxNumberOfArguments)
-              }
+        if (cursor.hasCurrent && isOptionArgument(cursor.current, cursor.offset)) {
+          if (logger.isFinerEnabled) logger.finer(fast"found option argument: ${cursor.token}")
 
-              //Notify accumulators that we're done
-              //Not sure if this is correct. If there are more arguments that need processing, then
-              //this may prematurely cut it off.
-              val revised_results = processOptionArgumentsDone(mapValue, accumulatedValues, results)
-
-              //return unmodified stream at this point so the caller
-              //can continue inspecting the arguments at the point where
-              //we've left off.
-              //
-              //IOW, we're explicitly NOT returning tail!
-              (args, updatedCommandLineOptionMap(map, mapValue, accumulatedValues), revised_results)
-            }
-          }
-          case _ => {
-            logger.finer("no more option arguments, continuing on")
-
-            //Validate that we've met the minimum number of required arguments for this option.
-            if (!mapValue.isMinNumberOfArgumentsUnbounded && valuesFound < mapValue.minNumberOfArguments) {
-              missingMinimumNumberOfArguments(mapValue.name, valuesFound, mapValue.minNumberOfArguments)
+          //Ensure we haven't exceeded the max number of arguments for this option.
+          if (mapValue.isMaxNumberOfArgumentsUnbounded || valuesRemaining > 0) {
+            val revised_accumulation = recorder.accumulate(id, cursor.current, cursor.offset, accumulatedValues)
+            cursor.advance()
+            processOptionArguments0(if (!mapValue.isMinNumberOfArgumentsUnbounded) min(valuesFound + 1, mapValue.minNumberOfArguments) else UNBOUNDED, if (!mapValue.isMaxNumberOfArgumentsUnbounded) max(valuesRemaining - 1, -1) else UNBOUNDED, revised_accumulation)
+          } else {
+            if (!mapValue.isMaxNumberOfArgumentsUnbounded && mapValue.maxNumberOfArguments > 0) {
+              exceededMaximumNumberOfArguments(mapValue.name, mapValue.maxNumberOfArguments)
             }
 
             //Notify accumulators that we're done
-            val revised_results = processOptionArgumentsDone(mapValue, accumulatedValues, results)
-
-            //return unmodified stream at this point so the caller
-            //can continue inspecting the arguments at the point where
-            //we've left off.
-            //
-            //IOW, we're explicitly NOT returning tail!
-            (args, updatedCommandLineOptionMap(map, mapValue, accumulatedValues), revised_results)
+            //Not sure if this is correct. If there are more arguments that need processing, then
+            //this may prematurely cut it off.
+            recorder.done(id, accumulatedValues)
+          }
+        } else if (suspend && !cursor.hasCurrent && (mapValue.isMaxNumberOfArgumentsUnbounded || valuesRemaining > 0)) {
+          //Out of arguments for now, but the next one fed to the state could be another value.
+          pending = GNUParseState.Pending(mapValue, valuesFound, valuesRemaining, accumulatedValues)
+        } else {
+          if (logger.isFinerEnabled) logger.finer("no more option arguments, continuing on")
+
+          //Validate that we've met the minimum number of required arguments for this option.
+          if (!mapValue.isMinNumberOfArgumentsUnbounded && valuesFound < mapValue.minNumberOfArguments) {
+            missingMinimumNumberOfArguments(mapValue.name, valuesFound, mapValue.minNumberOfArguments)
           }
+
+          //Notify accumulators that we're done
+          recorder.done(id, accumulatedValues)
         }
       }
 
-      processOptionArguments0(valuesFound, valuesRemaining, (command_line_options, accumulatedValues), results, args)
-    }
-
-    def processSingleOptionArgument(map: CommandLineOptionMap, mapValue: CommandLineOptionMapTypedValue, currentValue: String, accumulatedValues: Any): SingleOptionArgumentProcessingResult = {
-      logger.info(fast"processing value for ${mapValue.name}: $currentValue")
-      val result = mapValue(currentValue)
-      logger.fine(fast"ran option parser for ${mapValue.name}, result: ${result.toString}")
-      logger.fine(fast"processing accumulator for ${mapValue.name}")
-      val accumulation = if (result.isDefined) mapValue.accumulator(result.get, accumulatedValues) else accumulatedValues
-      logger.fine(fast"completed processing accumulator for ${mapValue.name}")
-      (updatedCommandLineOptionMap(map, mapValue, accumulation), accumulation)
-    }
-
-    def processOptionArgumentsDone(mapValue: CommandLineOptionMapTypedValue, accumulatedValues: Any, results: CommandLineOptionResults): CommandLineOptionResults = {
-      logger.info(fast"completed processing arguments for ${mapValue.name}")
-
-      val accumulator_result = mapValue.accumulator.done(accumulatedValues)
-      val result_option_list = results.results.getOrElse(mapValue.name, Some(List())).getOrElse(List())
-
-      results.copy(results = results.results.updated(mapValue.name, Some(accumulator_result :: result_option_list)))
+      processOptionArguments0(valuesFound, valuesRemaining, accumulatedValues)
     }
 
-    def unrecognizedOption(optionName: String): Unit =
-      logger.warning(fast"unrecognized option: $optionName")
+    def isOptionArgument(arg: String, start: Int): Boolean =
+      !isCommandLineOption(arg, start) && index.idOfName(arg, start, arg.length) == CommandLineOptionIndex.NOT_FOUND
 
     def invalidFormat(optionName: String, description: String): Unit =
-      logger.warning(fast"invalid format for option. $description")
+      if (logger.isWarningEnabled) logger.warning(fast"invalid format for option. $description")
 
     def missingMinimumNumberOfArguments(optionName: String, number_found: Int, minimum: Int): Unit =
-      logger.warning(fast"missing minimum number of expected arguments for $optionName: ${minimum.toString }, found: ${number_found.toString}")
+      if (logger.isWarningEnabled) logger.warning(fast"missing minimum number of expected arguments for $optionName: ${minimum.toString }, found: ${number_found.toString}")
 
     def exceededMaximumNumberOfArguments(optionName: String, maximum: Int): Unit =
-      logger.warning(fast"exceeded maximum number of expected option arguments for $optionName: ${maximum.toString}")
+      if (logger.isWarningEnabled) logger.warning(fast"exceeded maximum number of expected option arguments for $optionName: ${maximum.toString}")
 
-    def exceededMaximumArity(optionName: String, maximum: Int): Unit =
-      logger.warning(fast"exceeded the maximum number of expected options for $optionName: ${maximum.toString}")
+    recorder.record(start())
 
-    def updatedCommandLineOptionMap(map: CommandLineOptionMap, mapValue: CommandLineOptionMapTypedValue, accumulation: Any): CommandLineOptionMap =
-      map.updated(mapValue.name, (mapValue, accumulation))
+    val position = if (from != null) application_arguments.length else 0
+    new GNUParseState(this, index, configuration, position, Option(pending), bundle, recorder.results(operands_index), stopped)
+  }
+}
 
-    def hasReachedMaximumArity(mapValue: CommandLineOptionMapTypedValue, results: CommandLineOptionResults): Boolean = {
-      if (!mapValue.isArityUnbounded) {
-        results.results.get(mapValue.name) match {
-          case Some(Some(l)) => l.length >= mapValue.arity
-          case _ => false
-        }
-      } else {
-        false
-      }
-    }
+object GNUParserStrategy {
+  /** The most names suggested for an unrecognized long option. */
+  val MAX_SUGGESTIONS = 5
 
-    val end_results = processOptions0(application_arguments, command_line_options, CommandLineOptionResults(Map(), Map()))
-    val reversed_results = end_results.results.mapValues(opts => Some(opts.getOrElse(List.empty).reverse))
-    end_results.copy(results = reversed_results)
-  }
+  /** How many edits away from an unrecognized long option a name may be to be suggested. */
+  def suggestionDistance(name: String): Int =
+    math.min(2, name.length / 3)
 }
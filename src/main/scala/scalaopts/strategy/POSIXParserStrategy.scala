@@ -0,0 +1,226 @@
+/*
+  Copyright (C) 2012-2013 the original author or authors.
+
+  See the LICENSE.txt file distributed with this work for additional
+  information regarding copyright ownership.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package scalaopts.strategy
+
+import scalaopts._
+import scalaopts.common.StringUtil._
+import annotation.tailrec
+import com.dongxiguo.fastring.Fastring.Implicits._
+
+/**
+ * Strict POSIX getopt() style parsing, following the utility argument syntax guidelines:
+ *
+ * - Options are a hyphen followed by a single alphanumeric character. There are no long options, so
+ *   long names are ignored and every option needs a short name. Short names are case-sensitive.
+ * - Options that don't take an argument may be grouped behind a single hyphen. Thus, ‘-abc’ is
+ *   equivalent to ‘-a -b -c’.
+ * - An option either takes no argument or exactly one. The argument is the rest of the token if there
+ *   is any (‘-ofoo’) and otherwise the next argument (‘-o foo’), even if it begins with a hyphen.
+ * - The first argument that isn't an option, or a lone ‘-’, is the first operand. Options aren't
+ *   recognized after it.
+ * - The argument ‘--’ terminates all options; any following arguments are operands.
+ * - Unrecognized options are reported and skipped, as getopt() does.
+ *
+ * Each specification's short names are laid out once in a table indexed by character (kept with its
+ * [[scalaopts.CommandLineOptionIndex]]), which tells whether the character is an option and whether it
+ * takes an argument with a single array read.
+ */
+class POSIXParserStrategy extends ParserStrategy {
+  import POSIXParserStrategy._
+
+  def validateOptions(options: CommandLineOptionMap): Boolean = {
+    //Validate that every option can be given on the command line.
+    val unnamed_option = options.find(_._2._1.shortNames.isEmpty)
+    if (unnamed_option.isDefined) {
+      val option = unnamed_option.get._2._1
+      throw new IllegalArgumentException("All options must have a short name for POSIX-style parsing. The following option violated this rule: (name: " + option.name + ")")
+    }
+
+    //Validate that all short names are of length 1 and each name is alphanumeric.
+    val invalid_short_name_option = options.find(_._2._1.shortNames.exists(name => name.length != 1 || !Character.isLetterOrDigit(name.charAt(0))))
+    if (invalid_short_name_option.isDefined) {
+      val option = invalid_short_name_option.get._2._1
+      throw new IllegalArgumentException("All short names must be 1 character in length and alpha-numeric for POSIX-style parsing. The following option violated this rule: (name: " + option.name + ", short names: [" + (option.shortNames mkString ", ") + "])")
+    }
+
+    //Validate that every option takes either no argument or exactly one.
+    val invalid_arguments_option = options.find(value => !takesNoArgument(value._2._1) && !value._2._1.isSingleArgument)
+    if (invalid_arguments_option.isDefined) {
+      val option = invalid_arguments_option.get._2._1
+      throw new IllegalArgumentException("All options must take either no argument or exactly one for POSIX-style parsing. The following option violated this rule: (name: " + option.name + ", min: " + option.minNumberOfArguments + ", max: " + option.maxNumberOfArguments + ")")
+    }
+
+    true
+  }
+
+  /**
+   * The first operand, unless it's a lone "-" or follows "--".
+   *
+   * @see [[scalaopts.ParserStrategy#commandIndex]]
+   */
+  override def commandIndex(application_arguments: IndexedSeq[String], options: CommandLineOptionIndex): Int = {
+    val table = options.shortNameTable
+    val occurrences = new Array[Int](options.size)
+
+    //The next argument to examine after a group of options, or -1 if processing stops in it.
+    @tailrec
+    def afterOptions(arg: String, position: Int, next: Int): Int = {
+      if (position >= arg.length) {
+        next
+      } else {
+        val entry = entryOf(table, arg.charAt(position))
+        if (entry == NOT_FOUND) {
+          afterOptions(arg, position + 1, next)
+        } else {
+          val opt = options.option(entry >>> 1)
+          occurrences(entry >>> 1) += 1
+          if (!opt.isArityUnbounded && occurrences(entry >>> 1) > opt.arity) -1
+          else if ((entry & TAKES_ARGUMENT) == 0) afterOptions(arg, position + 1, next)
+          else if (position + 1 < arg.length) next
+          else next + 1
+        }
+      }
+    }
+
+    @tailrec
+    def commandIndex0(i: Int): Int = {
+      if (i < 0 || i >= application_arguments.length) {
+        -1
+      } else {
+        val arg = application_arguments(i)
+        if (!isOption(arg)) {
+          if (arg == NON_OPTION_ARGUMENT) -1 else i
+        } else if (arg == TERMINATOR) {
+          -1
+        } else {
+          commandIndex0(afterOptions(arg, 1, i + 1))
+        }
+      }
+    }
+
+    commandIndex0(0)
+  }
+
+  /**
+   * @see [[scalaopts.ParserStrategy]]
+   */
+  def processOptions(application_arguments: Stream[String], command_line_options: CommandLineOptionMap): CommandLineOptionResults =
+    processOptions(application_arguments.toIndexedSeq, command_line_options)
+
+  /**
+   * @see [[scalaopts.ParserStrategy]]
+   */
+  override def processOptions(application_arguments: IndexedSeq[String], command_line_options: CommandLineOptionMap): CommandLineOptionResults =
+    processOptions(application_arguments, command_line_options, new ParserConfiguration(this))
+
+  /**
+   * Diagnostic messages go to the configuration's [[scalaopts.ParserLogger]]. The listener is told
+   * about an option as soon as it reaches its arity since any further occurrences are ignored.
+   *
+   * @see [[scalaopts.ParserStrategy]]
+   */
+  override def processOptions(application_arguments: IndexedSeq[String], command_line_options: CommandLineOptionMap, configuration: ParserConfiguration, listener: ParseListener): CommandLineOptionResults = {
+    val index = CommandLineOptionIndex(command_line_options)
+    val table = index.shortNameTable
+    val logger = configuration.logger
+    val recorder = new ParseRecorder(index, configuration, listener, null)
+    var operands_index = -1
+
+    @tailrec
+    def processOptions0(i: Int): Unit = {
+      if (i < application_arguments.length) {
+        val arg = application_arguments(i)
+        if (!isOption(arg)) {
+          if (logger.isInfoEnabled) logger.info(fast"Found first operand: $arg")
+          operands_index = i
+        } else if (arg == TERMINATOR) {
+          if (logger.isInfoEnabled) logger.info("Found terminator")
+          operands_index = i + 1
+        } else {
+          val next = processOptionGroup(arg, 1, i + 1)
+          if (next >= 0) {
+            processOptions0(next)
+          }
+        }
+      }
+    }
+
+    /**
+     * Processes the option at the given position in arg along with any grouped after it. An option's
+     * argument is taken from the argument at next if the group ends with the option.
+     *
+     * @return the index of the next argument to process, or -1 if option processing should stop.
+     */
+    @tailrec
+    def processOptionGroup(arg: String, position: Int, next: Int): Int = {
+      if (position >= arg.length) {
+        next
+      } else {
+        val c = arg.charAt(position)
+        val entry = entryOf(table, c)
+        if (entry == NOT_FOUND) {
+          recorder.unrecognizedOption(c.toString)
+          recorder.invalidOption()
+          processOptionGroup(arg, position + 1, next)
+        } else {
+          val id = entry >>> 1
+          val command_line_option = index.option(id)
+          if (recorder.hasReachedMaximumArity(id)) {
+            recorder.exceededMaximumArity(command_line_option.name, command_line_option.arity)
+            -1
+          } else if ((entry & TAKES_ARGUMENT) == 0) {
+            recorder.done(id, recorder.accumulate(id, empty, 0, recorder.initialAccumulation(id)))
+            processOptionGroup(arg, position + 1, next)
+          } else if (position + 1 < arg.length) {
+            recorder.done(id, recorder.accumulate(id, arg, position + 1, recorder.initialAccumulation(id)))
+            next
+          } else if (next < application_arguments.length) {
+            recorder.done(id, recorder.accumulate(id, application_arguments(next), 0, recorder.initialAccumulation(id)))
+            next + 1
+          } else {
+            if (logger.isWarningEnabled) logger.warning(fast"missing argument for ${command_line_option.name}")
+            recorder.invalidOption()
+            next
+          }
+        }
+      }
+    }
+
+    recorder.record(processOptions0(0))
+    ParseRecorder.reversed(recorder.results(operands_index), false)
+  }
+}
+
+object POSIXParserStrategy {
+  val NON_OPTION_ARGUMENT = "-"
+  val TERMINATOR          = "--"
+
+  private val NOT_FOUND = CommandLineOptionIndex.NOT_FOUND
+  private val TAKES_ARGUMENT = CommandLineOptionIndex.TAKES_ARGUMENT
+
+  private def isOption(arg: String): Boolean =
+    arg.length > 1 && arg.charAt(0) == '-'
+
+  private def takesNoArgument(option: CommandLineOptionMapTypedValue): Boolean =
+    option.isFlag && option.maxNumberOfArguments == 0
+
+  @inline private def entryOf(table: Array[Int], c: Char): Int =
+    if (c < table.length) table(c) else NOT_FOUND
+}
@@ -0,0 +1,171 @@
+/*
+  Copyright (C) 2012-2013 the original author or authors.
+
+  See the LICENSE.txt file distributed with this work for additional
+  information regarding copyright ownership.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package scalaopts.strategy
+
+import scalaopts._
+import com.dongxiguo.fastring.Fastring.Implicits._
+
+/**
+ * Accumulates option values and records errors for a single parse, so every strategy does both the
+ * same way and only has to decide where the values and options are in the arguments.
+ *
+ * Every occurrence of an option is prepended to the option's slot (indexed by its id in the index).
+ * A parse that carries on from a [[scalaopts.strategy.GNUParseState]] starts with the state's slots and
+ * errors. The slots are shared with the state, so they're copied before the first write.
+ *
+ * When counting, nothing is parsed or accumulated: each occurrence only takes up a place in its slot so
+ * arities are still enforced (see [[scalaopts.ParserStrategy#commandIndex]]).
+ *
+ * Not thread-safe -- create one per parse.
+ */
+private[strategy] final class ParseRecorder(index: CommandLineOptionIndex, configuration: ParserConfiguration, listener: ParseListener, resumed: GNUParseState, counting: Boolean = false) {
+  private[this] val logger = configuration.logger
+  private[this] var slots: Array[List[Any]] = if (resumed != null) resumed.slots else new Array(index.size)
+  private[this] var slots_shared = resumed != null
+  private[this] var errors: CommandLineOptionParseErrors = if (resumed != null) resumed.processed.errors else Map()
+  //Only created when async accumulator callbacks should run on an executor. Incremental parses call them directly.
+  private[this] val async_accumulations = if (resumed == null && !counting) configuration.asyncAccumulators.map(new AsyncAccumulations(_)).orNull else null
+
+  /** What the option's accumulator starts an occurrence with. */
+  def initialAccumulation(id: Int): Any = {
+    val mapValue = index.option(id)
+    val accumulation = if (counting) null else mapValue.accumulator.initialValueAfter(mapValue, slots(id), async_accumulations)
+    //An accumulation carried on from a previous occurrence that the state has too is copied first.
+    if (resumed != null && (resumed.slots(id) ne null) && (resumed.slots(id).head.asInstanceOf[AnyRef] eq accumulation.asInstanceOf[AnyRef])) mapValue.accumulator.copy(accumulation) else accumulation
+  }
+
+  /**
+   * Hands the value that begins at from in arg to the option's accumulator, which parses it. The
+   * accumulator decides whether the value has to be copied out of the argument first. Returns the
+   * revised accumulation.
+   */
+  def accumulate(id: Int, arg: String, from: Int, accumulatedValues: Any): Any =
+    if (counting) {
+      accumulatedValues
+    } else {
+      val mapValue = index.option(id)
+      if (logger.isInfoEnabled) logger.info(fast"processing value for ${mapValue.name}: ${arg.substring(from)}")
+      if (logger.isFineEnabled) logger.fine(fast"processing accumulator for ${mapValue.name}")
+      val accumulation = mapValue.accumulator.accumulateFrom(mapValue.parser, arg, from, accumulatedValues)
+      if (logger.isFineEnabled) logger.fine(fast"completed processing accumulator for ${mapValue.name}")
+      accumulation
+    }
+
+  /** Finishes an occurrence of the option and adds its result to the option's slot. */
+  def done(id: Int, accumulatedValues: Any): Unit = {
+    val mapValue = index.option(id)
+    if (logger.isInfoEnabled) logger.info(fast"completed processing arguments for ${mapValue.name}")
+
+    val accumulator_result = if (counting) null else mapValue.accumulator.done(accumulatedValues)
+    if (slots_shared) {
+      slots = slots.clone()
+      slots_shared = false
+    }
+    //An option accumulated across its occurrences has the one result.
+    slots(id) = if ((slots(id) eq null) || mapValue.accumulator.accumulatesAcrossOccurrences) List(accumulator_result) else accumulator_result :: slots(id)
+
+    //The listener is told about an option as soon as it reaches its arity since any further occurrences are ignored.
+    if (listener != null && hasReachedMaximumArity(id)) {
+      listener.optionDone(mapValue, slots(id).reverse)
+    }
+  }
+
+  def hasReachedMaximumArity(id: Int): Boolean = {
+    val mapValue = index.option(id)
+    !mapValue.isArityUnbounded && (slots(id) ne null) && slots(id).lengthCompare(mapValue.arity) >= 0
+  }
+
+  def invalidOption(): Unit =
+    errors = errors.updated(ParserError.InvalidOptions, ParserError.InvalidOptions.message)
+
+  def unrecognizedOption(optionName: String, suggestions: Seq[String] = Nil): Unit = {
+    if (logger.isWarningEnabled) logger.warning(if (suggestions.isEmpty) fast"unrecognized option: $optionName" else fast"unrecognized option: $optionName (did you mean: ${suggestions mkString ", "}?)")
+    val unrecognized = errors.getOrElse(ParserError.UnrecognizedOptions, Map()).asInstanceOf[Map[String, Seq[String]]]
+    errors = errors.updated(ParserError.UnrecognizedOptions, unrecognized.updated(optionName, suggestions))
+  }
+
+  def ambiguousOption(optionName: String, candidates: Seq[String]): Unit = {
+    if (logger.isWarningEnabled) logger.warning(fast"ambiguous option: $optionName (could be: ${candidates mkString ", "})")
+    val ambiguous = errors.getOrElse(ParserError.AmbiguousOptions, Map()).asInstanceOf[Map[String, Seq[String]]]
+    errors = errors.updated(ParserError.AmbiguousOptions, ambiguous.updated(optionName, candidates))
+  }
+
+  def exceededMaximumArity(optionName: String, maximum: Int): Unit =
+    if (logger.isWarningEnabled) logger.warning(fast"exceeded the maximum number of expected options for $optionName: ${maximum.toString}")
+
+  /**
+   * Runs the parse and waits for any queued accumulator callbacks to finish, even if it stopped part way
+   * through. Callback failures are recorded as [[scalaopts.ParserError.AccumulatorFailures]].
+   *
+   * Accumulators of options that weren't found are told so at the end of a full parse (see
+   * [[scalaopts.OptionArgumentAccumulator#notFound]]).
+   */
+  def record(parse: => Unit): Unit = {
+    try {
+      parse
+      if (resumed == null && !counting) {
+        var id = 0
+        while (id < slots.length) {
+          if (slots(id) eq null) {
+            val mapValue = index.option(id)
+            mapValue.accumulator.notFound(mapValue, async_accumulations)
+          }
+          id += 1
+        }
+      }
+    } finally {
+      if (async_accumulations != null) {
+        async_accumulations.close()
+      }
+    }
+
+    if (async_accumulations != null) {
+      val failures = async_accumulations.await()
+      if (!failures.isEmpty) {
+        if (logger.isWarningEnabled) logger.warning(fast"accumulator callbacks failed for ${failures.size.toString} option(s)")
+        errors = errors.updated(ParserError.AccumulatorFailures, failures)
+      }
+    }
+  }
+
+  /** The results so far, with each option's occurrences most recent first. */
+  def results(operandsIndex: Int): CommandLineOptionResults =
+    CommandLineOptionResults(OptionSlotMap.strategyResults(index, slots), errors, operandsIndex)
+}
+
+private[strategy] object ParseRecorder {
+  /**
+   * Puts each option's occurrences back in the order they were found.
+   *
+   * @param copy true if the slots are shared with a state and have to be left untouched.
+   */
+  def reversed(results: CommandLineOptionResults, copy: Boolean): CommandLineOptionResults = {
+    val processed = results.results.asInstanceOf[OptionSlotMap[_]]
+    val slots = if (copy) processed.slots.clone() else processed.slots
+    var id = 0
+    while (id < slots.length) {
+      if (slots(id) ne null) {
+        slots(id) = slots(id).reverse
+      }
+      id += 1
+    }
+    results.copy(results = OptionSlotMap.strategyResults(processed.options, slots))
+  }
+}
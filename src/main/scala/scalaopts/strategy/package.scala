@@ -26,20 +26,29 @@ import annotation.tailrec
  */
 package object strategy {
 
-  def findMatchingCommandLineOption(command_line_options: CommandLineOptionMap)(name: String): Option[CommandLineOptionMapValue] =
-    findMatchingMapValue(command_line_options)(name)((value, looking_for) => value._1.isMatchForName(looking_for))
+  //Plain maps are scanned rather than indexed, since building an index costs more than a single lookup saves.
 
-  def findMatchingCommandLineOptionByLongName(command_line_options: CommandLineOptionMap)(name: String): Option[CommandLineOptionMapValue] =
-    findMatchingMapValue(command_line_options)(name)((value, looking_for) => value._1.isMatchForLongName(looking_for))
+  def findMatchingCommandLineOption(command_line_options: CommandLineOptionMap)(name: String): Option[CommandLineOptionMapValue] = command_line_options match {
+    case index: CommandLineOptionIndex => index.findByName(name)
+    case _ => command_line_options.values.find(_._1.isMatchForName(name))
+  }
+
+  def findMatchingCommandLineOptionByLongName(command_line_options: CommandLineOptionMap)(name: String): Option[CommandLineOptionMapValue] = command_line_options match {
+    case index: CommandLineOptionIndex => index.findByLongName(name)
+    case _ => command_line_options.values.find(_._1.isMatchForLongName(name))
+  }
 
-  def findMatchingCommandLineOptionByShortName(command_line_options: CommandLineOptionMap)(name: String): Option[CommandLineOptionMapValue] =
-    findMatchingMapValue(command_line_options)(name)((value, looking_for) => value._1.isMatchForShortName(looking_for))
+  def findMatchingCommandLineOptionByShortName(command_line_options: CommandLineOptionMap)(name: String): Option[CommandLineOptionMapValue] = command_line_options match {
+    case index: CommandLineOptionIndex => index.findByShortName(name)
+    case _ => command_line_options.values.find(_._1.isMatchForShortName(name))
+  }
 
   /**
    * Return the value in a map matching a given predicate p.
    *
    * @return The value matching the predicate p.
    */
+  @deprecated("Use m.values.find() instead.", "0.1")
   def findMatchingMapValue[A, B, C](m: Map[A, B])(looking_for: C)(p: (B, C) => Boolean): Option[B] = m.find(t => p(t._2, looking_for)) match {
     case None => None
     case Some((key, value)) => Some(value)
@@ -54,6 +63,16 @@ package object strategy {
     else (s, empty, false)
   }
 
+  /** Returns the index of the first character at or after from that isn't c. */
+  def skipLeadingCharacter(c: Char)(s: String, from: Int): Int = {
+    var index = from
+    while (index < s.length && s.charAt(index) == c) {
+      index += 1
+    }
+    index
+  }
+
   val stripLeadingHyphens = stripLeadingCharacter('-')_
+  val skipLeadingHyphens = skipLeadingCharacter('-')_
   val splitAtEquals = splitAtCharacter('=')_
 }
@@ -22,7 +22,6 @@ package scalaopts
 import com.dongxiguo.zeroLog.formatters.SimpleFormatter
 import com.dongxiguo.zeroLog.Filter
 import com.dongxiguo.zeroLog.appenders.ConsoleAppender
-import strategy.GNUParserStrategy
 
 /**
  * Commands describe available directives that will be used when actually parsing command line
@@ -31,12 +30,16 @@ import strategy.GNUParserStrategy
 object ZeroLoggerFactory {
   def isAssignableFrom(runtimeClass: Class[_])(cls: Class[_]): Boolean = runtimeClass.isAssignableFrom(cls)
 
-  final def newLogger[T](implicit desired:Manifest[T]) = {
-    val cls = desired.runtimeClass
+  final def newLogger[T](implicit desired:Manifest[T]) =
+    newLoggerFor(desired.runtimeClass)
+
+  /** As above without needing a manifest. */
+  final def newLoggerFor(cls: Class[_]) = {
     val is = isAssignableFrom(cls)_
 
     cls match {
-      case _ if is(classOf[GNUParserStrategy]) => (Filter.Finest, SimpleFormatter, ConsoleAppender)
+      //Levels are already filtered by ParserLogger before messages reach zero-log.
+      case _ if is(classOf[LogAppender]) => (Filter.Finest, SimpleFormatter, ConsoleAppender)
       case _ => (Filter.Finest, SimpleFormatter, ConsoleAppender)
     }
   }
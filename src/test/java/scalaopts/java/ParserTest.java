@@ -25,6 +25,9 @@ import scalaopts.DefaultFlagOption$;
 import scalaopts.DefaultIntegerOption;
 import scalaopts.DefaultIntegerOption$;
 
+import java.util.Arrays;
+import java.util.Collections;
+
 import static org.junit.Assert.*;
 import static org.junit.Assert.assertEquals;
 
@@ -80,6 +83,83 @@ public class ParserTest {
     parser.parse("-a", "-verbose", "-c");
   }
 
+  @Test
+  public void javaResults() {
+    final IParser parser = CommandLineOptions.build(
+      CommandLineOption
+        .named("size")
+        .longName("size")
+        .shortName("s")
+        .arity(CommandLineOption.ARITY_UNBOUNDED)
+        .parseAs(new IOptionTransform<Integer>() {
+          @Override
+          public Integer apply(String value) {
+            return value.length();
+          }
+        }),
+
+      CommandLineOption
+        .named("count")
+        .longName("count")
+        .shortName("c")
+        .required()
+        .parseAs(DefaultIntegerOption$.MODULE$),
+
+      CommandLineOption
+        .named("verbose")
+        .longName("verbose")
+        .shortName("v")
+        .dependsOn("count")
+        .minNumberOfRequiredValues(0)
+        .maxNumberOfRequiredValues(0)
+        .parseAs(DefaultFlagOption$.MODULE$)
+    );
+
+    final IParseResults results = parser.parse("-v", "--size=ab", "-sabcd", "--", "x", "y");
+    assertTrue(results.isDefined("size"));
+    assertFalse(results.isDefined("count"));
+    assertFalse(results.isDefined("unknown"));
+    assertEquals(Arrays.asList(2, 4), results.<Integer>getValues("size"));
+    assertSame(results.getValues("size"), results.getValues("size"));
+    assertEquals(Integer.valueOf(2), results.<Integer>getFirst("size"));
+    assertEquals(2, results.getInt("size", -1));
+    assertEquals(-1, results.getInt("count", -1));
+    assertTrue(results.getBoolean("verbose", false));
+    assertArrayEquals(new int[] { 2, 4 }, results.getIntArray("size"));
+    results.getIntArray("size")[0] = 7;
+    assertArrayEquals(new int[] { 2, 4 }, results.getIntArray("size"));
+    assertNull(results.getIntArray("count"));
+    assertEquals(Arrays.asList("x", "y"), results.getOperands());
+    assertEquals(Collections.singletonList("count"), results.getMissingRequired());
+    assertEquals(Collections.singletonMap("verbose", Collections.singletonList("count")), results.getMissingDependencies());
+    assertFalse(results.hasInvalidOptions());
+  }
+
+  @Test
+  public void posixStrategy() {
+    final IParser parser = CommandLineOptions.build(
+      new ParserConfiguration(IParserStrategy.POSIX),
+
+      CommandLineOption
+        .named("size")
+        .shortName("s")
+        .parseAs(DefaultIntegerOption$.MODULE$),
+
+      CommandLineOption
+        .named("verbose")
+        .shortName("v")
+        .minNumberOfRequiredValues(0)
+        .maxNumberOfRequiredValues(0)
+        .parseAs(DefaultFlagOption$.MODULE$)
+    );
+
+    final IParseResults results = parser.parse("-vs", "-1", "x", "-v");
+    assertEquals(-1, results.getInt("size", 0));
+    assertTrue(results.getBoolean("verbose", false));
+    assertEquals(Arrays.asList("x", "-v"), results.getOperands());
+    assertFalse(results.hasInvalidOptions());
+  }
+
   @Test
   public void javaTest2() {
     System.out.println("java 2");
@@ -131,6 +131,39 @@ class ParserTest extends FunSuite with ShouldMatchers with SeveredStackTraces {
     assert(g_1.success)
   }
 
+  test("required options") {
+    val specification = CommandLineOptions(
+      CommandLineFlag named "all" shortName "a" required,
+      CommandLineFlag named "brief" shortName "b",
+      CommandLineOption named "count" shortName "c" required (true) parseAs IntegerOption()
+    )
+
+    specification.parse("-a", "--count=1").success should be (true)
+
+    val result_01 = specification.parse("-b")
+    result_01.success should be (false)
+    result_01.missingRequired.map(_.name).toList should be (List("all", "count"))
+
+    val result_02 = specification.parse("-a")
+    result_02.missingRequired.map(_.name).toList should be (List("count"))
+  }
+
+  test("dependencies across many options") {
+    //Enough options for the dependency masks to span several words.
+    val specification = CommandLineOptions.applySeq(
+      for (i <- 0 until 200)
+        yield step2ToFinal(CommandLineFlag named ("f" + i) dependsOn ("f" + ((i + 70) % 200)) dependsOn ("f" + ((i + 130) % 200)))
+    )
+
+    specification.parseArguments((0 until 200).map("--f" + _)).anyMissingDependencies should be (false)
+
+    val result = specification.parse("--f0", "--f70", "--f199")
+    result.missingDependencies.keys.map(_.name).toSet should be (Set("f0", "f70", "f199"))
+    result.missingDependencies("f0") should be (Some(List("f130")))
+    result.missingDependencies("f70") should be (Some(List("f140")))
+    result.missingDependencies("f199") should be (Some(List("f69", "f129")))
+  }
+
   test("simple flags") {
     val specification = CommandLineOptions(
       CommandLineFlag named "all" shortName "a" shortName "e" longName "all" describedAs "Show all files",
@@ -155,6 +188,678 @@ class ParserTest extends FunSuite with ShouldMatchers with SeveredStackTraces {
     assert(result_03.anyInvalidOptions)
   }
 
+  test("option name index") {
+    val index = ParserTransforms.createParserMap(Seq(
+      CommandLineFlag named "all" shortName "a" longName "all" longName "everything",
+      CommandLineFlag named "long" shortName "l" shortName "ll"
+    ))
+
+    index.findByLongName("EveryThing").map(_._1.name) should be (Some("all"))
+    index.findByShortName("A").map(_._1.name) should be (Some("all"))
+    index.findByShortName("ll").map(_._1.name) should be (Some("long"))
+    index.findByName("long").map(_._1.name) should be (Some("long"))
+    index.findByLongName("a") should be (None)
+    index.idOfLongName("--all=1", 2, 5) should be (index.idOfName("all"))
+  }
+
+  test("usage") {
+    val specification = CommandLineOptions(
+      CommandLineFlag named "all" shortName "a" shortName "e" longName "all" describedAs "Show all files",
+      CommandLineFlag named "long" shortName "l" describedAs "Provides a long listing format that includes permissions"
+    )
+
+    def usage(width: Int): String = {
+      val bytes = new _root_.java.io.ByteArrayOutputStream
+      specification.showUsage("ls", new _root_.java.io.PrintStream(bytes), width)
+      bytes.toString.replace(System.getProperty("line.separator"), "\n")
+    }
+
+    usage(80) should be ("USAGE: ls\n--all [-a, -e] Show all files\n--long [-l] Provides a long listing format that includes permissions\n")
+    usage(40) should be ("USAGE: ls\n--all [-a, -e] Show all files\n--long [-l] Provides a long listing\n            format that includes\n            permissions\n")
+    usage(20) should be ("USAGE: ls\n--all [-a, -e] Show\n    all files\n--long [-l] Provides\n    a long listing\n    format that\n    includes\n    permissions\n")
+    usage(40) should be (usage(40))
+
+    //Encoded with the stream's charset rather than the platform's.
+    val bytes = new _root_.java.io.ByteArrayOutputStream
+    CommandLineOptions(CommandLineFlag named "size" describedAs "Gr\u00f6\u00dfe").showUsage("ls", new _root_.java.io.PrintStream(bytes, false, "UTF-16"), 80)
+    bytes.toString("UTF-16") should include ("Gr\u00f6\u00dfe")
+  }
+
+  test("terminal dimensions") {
+    import common.platform._
+
+    var queries = 0
+    val counting = new ITerminal {
+      def queryTerminalDimensions(): ITerminal.Dimension = {
+        queries += 1
+        new ITerminal.Dimension(100 + queries, 40)
+      }
+    }
+
+    val cached = new CachingTerminal(counting, Long.MaxValue)
+    cached.queryTerminalDimensions().Width should be (101)
+    cached.queryTerminalDimensions().Width should be (101)
+    queries should be (1)
+    cached.invalidate()
+    cached.queryTerminalDimensions().Width should be (102)
+
+    val uncached = new CachingTerminal(counting, 0L)
+    uncached.queryTerminalDimensions().Width should be (103)
+    uncached.queryTerminalDimensions().Width should be (104)
+
+    //Without a known ioctl request only the environment and defaults are used.
+    assert(new Posix.Terminal(Posix.TIOCGWINSZ_UNKNOWN).queryTerminalDimensions().Width > 0)
+    assert(Terminal.queryTerminalDimensions().Width > 0)
+  }
+
+  test("bundled short options") {
+    val specification = CommandLineOptions(
+      CommandLineFlag named "all" shortName "a",
+      CommandLineFlag named "brief" shortName "b",
+      CommandLineOption named "output" shortName "o" parseAs StringOption()
+    )
+
+    val result_01 = specification.parse("-abofile")
+    assert(result_01.success)
+    result_01.single[Boolean]("all") should be (Some(true))
+    result_01.single[Boolean]("brief") should be (Some(true))
+    result_01.first[String]("output") should be (Some("file"))
+
+    val result_02 = specification.parse("-ba", "--output=file")
+    assert(result_02.success)
+    result_02.single[Boolean]("all") should be (Some(true))
+    result_02.first[String]("output") should be (Some("file"))
+
+    val result_03 = specification.parse("-abx")
+    assert(!result_03.success)
+    assert(result_03.anyInvalidOptions)
+  }
+
+  test("compiled specification") {
+    val specification = CommandLineOptions(
+      CommandLineFlag named "all" shortName "a" dependsOn "brief",
+      CommandLineFlag named "brief" shortName "b"
+    )
+
+    val compiled = specification.compile()
+    compiled should be theSameInstanceAs (specification.compile())
+
+    compiled.parse("-ab").success should be (true)
+    compiled.parse("-a").missingDependencies("all") should be (Some(List("brief")))
+    compiled.defaultValue[Boolean]("all") should be (Some(false))
+
+    evaluating {
+      CommandLineOptions(CommandLineFlag named "all" shortName "all").compile()
+    } should produce [IllegalArgumentException]
+  }
+
+  test("primitive array accumulators") {
+    val specification = CommandLineOptions(
+      CommandLineOption named "ids" shortName "i" arity UNBOUNDED arguments (1, UNBOUNDED) parseAs IntegerOption() accumulateWith IntArrayAccumulator(),
+      CommandLineOption named "offsets" arguments (1, UNBOUNDED) parseAs LongOption() accumulateWith LongArrayAccumulator(Array(-1L)),
+      CommandLineOption named "weights" arguments (1, UNBOUNDED) parseAs DoubleOption() accumulateWith DoubleArrayAccumulator(),
+      CommandLineOption named "sizes" arguments (1, UNBOUNDED) parseAs IntegerOption() accumulateWith IntegerList()
+    )
+
+    val result_01 = specification.parse("--ids=1", "2", "3", "-i4", "--offsets=10", "20", "--weights=0.5", "--sizes=7", "8")
+    assert(result_01.success)
+    result_01.intArray("ids").map(_.toList) should be (Some(List(1, 2, 3, 4)))
+    result_01.longArray("offsets").map(_.toList) should be (Some(List(-1L, 10L, 20L)))
+    result_01.doubleArray("weights").map(_.toList) should be (Some(List(0.5)))
+    result_01.intArray("sizes").map(_.toList) should be (Some(List(7, 8)))
+    result_01.intArray("missing") should be (None)
+
+    //Accumulation must not leak between parses.
+    val result_02 = specification.parse("--offsets=30")
+    result_02.longArray("offsets").map(_.toList) should be (Some(List(-1L, 30L)))
+    result_02.intArray("ids") should be (None)
+  }
+
+  test("operands") {
+    val specification = CommandLineOptions(
+      CommandLineFlag named "all" shortName "a",
+      CommandLineOption named "output" shortName "o" parseAs StringOption()
+    )
+
+    val result_01 = specification.parse("-a", "--output=file", "--", "x", "--all", "-")
+    assert(result_01.success)
+    result_01.operands.toList should be (List("x", "--all", "-"))
+    result_01.single[Boolean]("all") should be (Some(true))
+
+    val result_02 = specification.parse("-a", "-", "x")
+    result_02.operands.toList should be (List("-", "x"))
+
+    val result_03 = specification.parse("-a-", "x")
+    result_03.operands.toList should be (List("x"))
+
+    val result_04 = specification.parse("-a", "--")
+    result_04.hasOperands should be (false)
+    result_04.operands.hasNext should be (false)
+
+    val arguments = Array.tabulate(100000)(_.toString)
+    val result_05 = specification.parseArguments("--output=file" +: "--" +: arguments)
+    result_05.operandsIndex should be (2)
+    result_05.operands.next() should be ("0")
+    result_05.operands.size should be (arguments.length)
+  }
+
+  test("response files") {
+    def responseFile(contents: String): _root_.java.io.File = {
+      val file = _root_.java.io.File.createTempFile("scalaopts", ".args")
+      file.deleteOnExit()
+      val writer = new _root_.java.io.OutputStreamWriter(new _root_.java.io.FileOutputStream(file), "UTF-8")
+      try writer.write(contents) finally writer.close()
+      file
+    }
+
+    val configuration = new ParserConfiguration(new strategy.GNUParserStrategy(), expandResponseFiles = true)
+    val specification = CommandLineOptions(configuration)(
+      CommandLineFlag named "all" shortName "a",
+      CommandLineOption named "output" shortName "o" parseAs StringOption()
+    )
+
+    val nested = responseFile("-a\n--\n'first operand' \"sec\\\"ond\" third\\ operand\n")
+    val outer = responseFile("--output='my file'  @" + nested.getPath + "\n")
+    val result_01 = specification.parse("@" + outer.getPath, "last")
+    assert(result_01.success)
+    result_01.first[String]("output") should be (Some("my file"))
+    result_01.single[Boolean]("all") should be (Some(true))
+    result_01.operands.toList should be (List("first operand", "sec\"ond", "third operand", "last"))
+
+    //Files that don't exist are left alone.
+    specification.parse("--output=x", "--", "@does-not-exist").operands.toList should be (List("@does-not-exist"))
+
+    //Operands aren't expanded, whether the terminator is on the command line or in a file.
+    specification.parse("-a", "--", "@" + outer.getPath).operands.toList should be (List("@" + outer.getPath))
+    val terminated = responseFile("-a -- @" + outer.getPath + "\n")
+    specification.parse("@" + terminated.getPath, "@" + nested.getPath).operands.toList should be (List("@" + outer.getPath, "@" + nested.getPath))
+
+    //Not expanded unless configured.
+    CommandLineOptions(CommandLineFlag named "all").parse("--", "@" + outer.getPath).operands.toList should be (List("@" + outer.getPath))
+
+    val cycle_1 = responseFile("")
+    val cycle_2 = responseFile("@" + cycle_1.getPath)
+    val writer = new _root_.java.io.FileWriter(cycle_1)
+    try writer.write("-a @" + cycle_2.getPath) finally writer.close()
+    evaluating {
+      specification.parse("@" + cycle_1.getPath)
+    } should produce [IllegalArgumentException]
+
+    val operands = responseFile("--\n" + (1 to 100000).mkString("\n"))
+    val result_02 = specification.parse("-a", "@" + operands.getPath)
+    result_02.operands.size should be (100000)
+    evaluating { result_02.operands } should produce [IllegalStateException]
+  }
+
+  test("parse all and shared parsers") {
+    def specification() = CommandLineOptions(
+      CommandLineFlag named "all" shortName "a" dependsOn "level",
+      CommandLineFlag named "brief" shortName "b" arity UNBOUNDED,
+      CommandLineOption named "level" shortName "l" parseAs IntegerOption(),
+      CommandLineOption named "values" arguments (1, UNBOUNDED) parseAs IntegerOption() accumulateWith IntegerList()
+    )
+
+    val random = new scala.util.Random(42)
+    val command_lines = IndexedSeq.fill(2000)(IndexedSeq.fill(random.nextInt(6)) {
+      random.nextInt(5) match {
+        case 0 => "-ab"
+        case 1 => "-l" + random.nextInt(100)
+        case 2 => "--values=" + random.nextInt(100)
+        case 3 => random.nextInt(100).toString
+        case _ => "-bb"
+      }
+    })
+    def summary(results: ParseResults) = (results.success, results.optionResults, results.errors.keySet)
+
+    val expected = command_lines.map(specification().parseArguments(_)).map(summary)
+
+    val pool = new scala.concurrent.forkjoin.ForkJoinPool(8)
+    try {
+      specification().parseAll(command_lines, pool).map(summary) should be (expected)
+      specification().parseAll(Nil, pool) should be ('empty)
+    } finally {
+      pool.shutdown()
+    }
+
+    //A single parser hammered from several threads, including its first (lazy) compilation.
+    val shared = specification()
+    val failures = new _root_.java.util.concurrent.atomic.AtomicInteger()
+    val threads = for (t <- 0 until 8) yield new Thread(new Runnable {
+      def run(): Unit =
+        for (i <- t until command_lines.length by 8 if summary(shared.parseArguments(command_lines(i))) != expected(i))
+          failures.incrementAndGet()
+    })
+    threads.foreach(_.start())
+    threads.foreach(_.join())
+    failures.get should be (0)
+  }
+
+  test("string transforms") {
+    import OptionParserStringTransforms._
+
+    TRANSFORM_INT("42") should be (Some(42))
+    TRANSFORM_INT("-0x10") should be (Some(-16))
+    TRANSFORM_INT("0b101") should be (Some(5))
+    TRANSFORM_INT("2147483648") should be (None)
+    TRANSFORM_INT("-2147483648") should be (Some(Int.MinValue))
+    TRANSFORM_INT("0x") should be (None)
+    TRANSFORM_INT("12a") should be (None)
+    TRANSFORM_BYTE("128") should be (None)
+    TRANSFORM_SHORT("-0x8000") should be (Some(Short.MinValue))
+    TRANSFORM_LONG("-9223372036854775808") should be (Some(Long.MinValue))
+    TRANSFORM_LONG("9223372036854775808") should be (None)
+    TRANSFORM_DOUBLE(" 1.5e3 ") should be (Some(1500.0))
+    TRANSFORM_DOUBLE("0x1.8p1") should be (Some(3.0))
+    TRANSFORM_DOUBLE("1e") should be (None)
+    TRANSFORM_FLOAT(".5f") should be (Some(0.5f))
+    TRANSFORM_BOOLEAN("TRUE") should be (Some(true))
+    TRANSFORM_BOOLEAN("1") should be (Some(true))
+    TRANSFORM_BOOLEAN("") should be (None)
+    TRANSFORM_CHAR("") should be (None)
+  }
+
+  test("logging") {
+    val messages = collection.mutable.ArrayBuffer[(LogLevel.EnumVal, String)]()
+    val appender = new LogAppender {
+      def append(level: LogLevel.EnumVal, message: String): Unit = messages += ((level, message))
+    }
+    val options = Seq(
+      step2ToFinal(CommandLineFlag named "all" shortName "a"),
+      step3ToFinal(CommandLineOption named "output" shortName "o" parseAs StringOption())
+    )
+    def parse(logger: ParserLogger, args: String*) =
+      CommandLineOptions.applySeq(new ParserConfiguration(new strategy.GNUParserStrategy(), logger))(options).parse(args: _*)
+
+    ParserLogger.default should be theSameInstanceAs (ParserLogger.Off)
+    parse(ParserLogger.Off, "-a", "-ofile", "-x")
+    messages should be ('empty)
+
+    parse(ParserLogger(LogLevel.Warning, appender), "-a", "-ofile", "-x")
+    messages.map(_._1) should be (Seq(LogLevel.Warning))
+
+    messages.clear()
+    parse(ParserLogger(LogLevel.Finest, appender), "-a", "-ofile")
+    messages.map(_._1).toSet should be (Set(LogLevel.Info, LogLevel.Fine, LogLevel.Finer))
+
+    ParserLogger.fromProperties("FINE", "console").level should be (LogLevel.Fine)
+    ParserLogger.fromProperties("bogus", null) should be theSameInstanceAs (ParserLogger.Off)
+  }
+
+  test("async accumulators") {
+    val executor = _root_.java.util.concurrent.Executors.newFixedThreadPool(2)
+    try {
+      val seen = new _root_.java.util.concurrent.ConcurrentLinkedQueue[Int]()
+      val seen_when_done = new _root_.java.util.concurrent.atomic.AtomicInteger(-1)
+      val parser_thread = Thread.currentThread
+      val callback_threads = new _root_.java.util.concurrent.ConcurrentLinkedQueue[Thread]()
+      val configuration = new ParserConfiguration(new strategy.GNUParserStrategy(), asyncAccumulators = Some(new AsyncConfiguration(executor, 2)))
+      val parser = CommandLineOptions(configuration)(
+        CommandLineOption named "values" shortName "v" arguments (1, UNBOUNDED) parseAs IntegerOption()
+          accumulateWith AsyncInteger(List(-1), i => { callback_threads.add(Thread.currentThread); Thread.sleep(1); seen.add(i) }, Some(_ => seen_when_done.set(seen.size))),
+        CommandLineOption named "names" arity UNBOUNDED parseAs StringOption()
+          accumulateWith AsyncString(callback = s => if (s == "bad") throw new IllegalStateException(s))
+      )
+
+      val values = (0 until 50).map(_.toString)
+      val results = parser.parseArguments(("--values=" + values.head) +: values.tail)
+      results.success should be (true)
+      seen.toArray.toSeq should be (-1 +: (0 until 50))
+      seen_when_done.get should be (51)
+      callback_threads.contains(parser_thread) should be (false)
+
+      val failed = parser.parse("--names=good", "--names=bad", "-v1", "2", "--names=bad")
+      failed.success should be (false)
+      failed.anyAccumulatorFailures should be (true)
+      failed.accumulatorFailures("names").get.map(_.getMessage) should be (Seq("bad", "bad"))
+
+      //Initial values are delivered once per parse however the map was built, queued or not.
+      val delivered = new _root_.java.util.concurrent.atomic.AtomicInteger(0)
+      val options = ParserTransforms.createParserMap(Seq(
+        CommandLineOption named "count" arity UNBOUNDED parseAs IntegerOption() accumulateWith AsyncInteger(List(0), _ => delivered.incrementAndGet())
+      ))
+      delivered.get should be (0)
+      new Parser(configuration, options).parse("--count=1", "--count=2").success should be (true)
+      delivered.get should be (3)
+      new Parser(new ParserConfiguration(new strategy.GNUParserStrategy()), options).parse("--count=1", "--count=2").success should be (true)
+      delivered.get should be (6)
+
+      //Including when the option isn't given.
+      new Parser(configuration, options).parse().success should be (true)
+      delivered.get should be (7)
+      new Parser(new ParserConfiguration(new strategy.GNUParserStrategy()), options).parse().success should be (true)
+      delivered.get should be (8)
+      new Parser(new ParserConfiguration(new strategy.POSIXParserStrategy()), ParserTransforms.createParserMap(Seq(
+        CommandLineOption named "count" shortName "c" parseAs IntegerOption() accumulateWith AsyncInteger(List(0), _ => delivered.incrementAndGet())
+      ))).parse().success should be (true)
+      delivered.get should be (9)
+    } finally {
+      executor.shutdown()
+    }
+  }
+
+  test("parse async") {
+    import scala.concurrent.Await
+    import scala.concurrent.duration._
+
+    val config_done = new _root_.java.util.concurrent.CountDownLatch(1)
+    val released_early = new _root_.java.util.concurrent.atomic.AtomicBoolean(false)
+    val parser = CommandLineOptions(
+      CommandLineOption named "config" shortName "c" parseAs StringOption(),
+      CommandLineOption named "values" arguments (1, UNBOUNDED) parseAs new CustomOptionParser[String](transform = (s: String) => {
+        if (s == "gate") released_early.set(config_done.await(10, SECONDS))
+        if (s == "boom") throw new IllegalStateException(s)
+        Some(s)
+      }),
+      CommandLineFlag named "missing" dependsOn "nothing"
+    )
+
+    //Callbacks get their own thread so they can't be stuck behind the parse.
+    val callbacks = _root_.java.util.concurrent.Executors.newSingleThreadExecutor()
+    val args = Seq("-cfile", "--values=1", "2", "gate", "3", "--missing")
+    val parse = parser.parseArgumentsAsync(args)
+    parse.option[String]("config").onComplete(_ => config_done.countDown())(scala.concurrent.ExecutionContext.fromExecutor(callbacks))
+    val results = Await.result(parse, 10.seconds)
+    callbacks.shutdown()
+    released_early.get should be (true)
+
+    val expected = parser.parseArguments(args)
+    (results.success, results.optionResults, results.errors.keySet) should be ((expected.success, expected.optionResults, expected.errors.keySet))
+    Await.result(parse.option[String]("values"), 1.second) should be (expected[String]("values"))
+    Await.result(parse.option[Boolean]("nothing"), 1.second) should be (None)
+
+    val failed = parser.parseAsync("--values=boom", "-cfile")
+    evaluating { Await.result(failed, 10.seconds) } should produce [IllegalStateException]
+    evaluating { Await.result(failed.option[String]("config"), 1.second) } should produce [IllegalStateException]
+  }
+
+  test("incremental parse") {
+    import strategy.GNUParseState._
+
+    val gnu = new strategy.GNUParserStrategy()
+    val parser = CommandLineOptions(new ParserConfiguration(gnu))(
+      CommandLineFlag named "all" shortName "a",
+      CommandLineOption named "config" shortName "c" parseAs StringOption(),
+      CommandLineOption named "values" shortName "v" arguments (1, UNBOUNDED) parseAs IntegerOption() accumulateWith IntArrayAccumulator(),
+      CommandLineOption named "names" shortName "n" arguments (0, UNBOUNDED) parseAs StringOption() accumulateWith StringList(),
+      CommandLineOption named "pair" arguments (2, 2) parseAs StringOption()
+    )
+    val options = parser.compile().options
+    def summary(results: CommandLineOptionResults) =
+      (results.results.mapValues(_.map(_.map { case a: Array[_] => a.toList case v => v })), results.errors.keySet, results.operandsIndex)
+
+    val start = gnu.begin(options)
+    start.expected should be (ExpectOption)
+    val pair = start.feed("--pair=x")
+    pair.expected should be (ExpectValue(options.option(options.idOfName("pair")), true))
+    val values = pair.feedAll(Seq("y", "-cfile", "--values=1", "2"))
+    values.expected should be (ExpectValue(options.option(options.idOfName("values")), false))
+    values.pending.get.valuesFound should be (1)
+    values.accumulated("config") should be (Seq("file"))
+    values.accumulated("pair") should be (Seq(List("x", "y")))
+
+    //Resuming the same checkpoint twice doesn't disturb it.
+    summary(values.feed("3").results) should be (summary(values.feed("3").results))
+    summary(values.results) should be (summary(gnu.processOptions(IndexedSeq("--pair=x", "y", "-cfile", "--values=1", "2"), options)))
+
+    val command_lines = Seq(
+      Seq("-anx", "y", "-v1", "2", "--", "-a"),
+      Seq("-an", "x", "-a-", "z"),
+      Seq("--names", "-", "rest"),
+      Seq("-c", "-a", "--unknown", "-a")
+    )
+    for (args <- command_lines) {
+      val states = args.scanLeft(start)(_ feed _)
+      for (k <- 0 to args.length)
+        summary(states(k).feedAll(args.drop(k)).results) should be (summary(gnu.processOptions(args.toIndexedSeq, options)))
+    }
+    start.feedAll(Seq("-a", "--", "x")).expected should be (ExpectOperand)
+    start.feedAll(Seq("--unknown")).expected should be (ExpectNothing)
+  }
+
+  test("option slots") {
+    val specification = CommandLineOptions(
+      CommandLineFlag named "all" shortName "a" dependsOn "brief",
+      CommandLineFlag named "brief" shortName "b",
+      CommandLineOption named "count" shortName "c" parseAs IntegerOption()
+    )
+    val compiled = specification.compile()
+
+    val results = compiled.parse("-a", "--count=2")
+    results.optionResults should be (Map("all" -> List(List(true)), "count" -> List(2)))
+    results.optionResults.contains("brief") should be (false)
+    (results.optionResults + ("brief" -> List(false))).size should be (3)
+    results.first[Int]("count") should be (Some(2))
+    results.missingDependencies("ALL") should be (Some(List("brief")))
+    results.missingDependencies("brief") should be (None)
+    results.missingDependencies("unknown") should be (None)
+
+    //States resumed from the same state don't see each other's options.
+    val state = new strategy.GNUParserStrategy().begin(compiled.options).feed("-b")
+    state.feed("-a").results.results.keySet should be (Set("all", "brief"))
+    state.feed("--count=3").results.results.keySet should be (Set("brief", "count"))
+    state.results.results.keySet should be (Set("brief"))
+  }
+
+  test("specification snapshot") {
+    val specification = CommandLineOptions(
+      CommandLineFlag named "all" shortName "a" dependsOn "brief" describedAs "Shows everything",
+      CommandLineFlag named "brief" shortName "b" required (true),
+      CommandLineOption named "count" shortName "c" longName "number" parseAs IntegerOption(),
+      CommandLineOption named "values" arguments (1, UNBOUNDED) describedAs "Numbers to add" parseAs IntegerOption()
+    )
+    val bytes = SpecificationSnapshot.toByteArray(specification)
+    val loaded = SpecificationSnapshot.fromByteArray(bytes) {
+      case "all" | "brief" => OptionBinding(BooleanOption(true), Some(false))
+      case "count" | "values" => OptionBinding(IntegerOption())
+    }
+
+    for (id <- 0 until specification.options.size)
+      loaded.compile().options.option(id).name should be (specification.compile().options.option(id).name)
+
+    //Errors hold the options themselves, so they're compared by name.
+    def summary(results: ParseResults) =
+      (results.success, results.optionResults, results.errors.toString, results.operandsIndex)
+    for (args <- Seq(Seq("-a", "--number=2"), Seq("-b", "--values=1", "2", "3", "--", "x"), Seq("-ac", "4", "--unknown")))
+      summary(loaded.parse(args: _*)) should be (summary(specification.parse(args: _*)))
+
+    val out = new _root_.java.io.ByteArrayOutputStream()
+    loaded.showUsage("program", new _root_.java.io.PrintStream(out), 80)
+    val expected = new _root_.java.io.ByteArrayOutputStream()
+    specification.showUsage("program", new _root_.java.io.PrintStream(expected), 80)
+    out.toString should be (expected.toString)
+
+    evaluating { SpecificationSnapshot.fromByteArray(bytes.drop(1))(_ => OptionBinding(IntegerOption())) } should produce [IllegalArgumentException]
+  }
+
+  test("enum names") {
+    import common.{ArchWordSize, OS, OSFamily}
+    ParserError.values.map(_.name) should be (ParserError.values.map(ParserError.reflectiveName))
+    LogLevel.values.map(_.name) should be (LogLevel.values.map(LogLevel.reflectiveName))
+    OS.values.map(_.name) should be (OS.values.map(OS.reflectiveName))
+    OSFamily.values.map(_.name) should be (OSFamily.values.map(OSFamily.reflectiveName))
+    ArchWordSize.values.map(_.name) should be (ArchWordSize.values.map(ArchWordSize.reflectiveName))
+    OS.fromName("Linux").family should be (OSFamily.Unix)
+  }
+
+  test("subcommands") {
+    val root = CommandLineOptions(
+      CommandLineFlag named "verbose" shortName "v",
+      CommandLineOption named "directory" shortName "C" parseAs StringOption(),
+      CommandLineOption named "range" arguments (1, 2) parseAs IntegerOption()
+    )
+    val commit = Subcommand("commit", "Records changes") {
+      CommandLineOptions(
+        CommandLineOption named "message" shortName "m" parseAs StringOption(),
+        CommandLineFlag named "all" shortName "a"
+      )
+    }
+    val push = Subcommand("push") {
+      CommandLineOptions(CommandLineFlag named "force" shortName "f")
+    }
+    val broken = Subcommand("broken") { throw new IllegalStateException("Never invoked") }
+    val git = CommandParser(root)(commit, push, broken)
+
+    val committed = git.parse("-v", "--directory=repo", "commit", "-mfixed", "--all")
+    committed.success should be (true)
+    committed.commandName should be (Some("commit"))
+    committed.root.single[Boolean]("verbose") should be (Some(true))
+    committed.root.first[String]("directory") should be (Some("repo"))
+    committed.commandResults.get.first[String]("message") should be (Some("fixed"))
+    committed.commandResults.get.single[Boolean]("all") should be (Some(true))
+    commit.isBuilt should be (true)
+    push.isBuilt should be (false)
+
+    //Option values before the subcommand aren't mistaken for it.
+    val pushed = git.parse("-vCrepo", "--range=1", "2", "push", "-f")
+    pushed.success should be (true)
+    pushed.commandName should be (Some("push"))
+    pushed.root.first[Seq[Int]]("range") should be (Some(List(1, 2)))
+    pushed.commandResults.get.single[Boolean]("force") should be (Some(true))
+
+    val unknown = git.parse("-v", "pull")
+    unknown.success should be (false)
+    unknown.unknownCommand should be (Some("pull"))
+
+    val none = git.parse("-v", "--", "commit")
+    none.success should be (true)
+    none.command should be (None)
+    none.root.operands.toList should be (List("commit"))
+
+    broken.isBuilt should be (false)
+    evaluating { CommandParser(root)(push, Subcommand("push")(root)) } should produce [IllegalArgumentException]
+  }
+
+  test("posix strategy") {
+    val parser = CommandLineOptions(CommandLineOptions.POSIX_PARSER_CONFIGURATION)(
+      CommandLineFlag named "all" shortName "a",
+      CommandLineFlag named "brief" shortName "b",
+      CommandLineFlag named "ALL" shortName "A",
+      CommandLineOption named "output" shortName "o" parseAs StringOption(),
+      CommandLineOption named "count" shortName "c" arity UNBOUNDED parseAs IntegerOption()
+    )
+
+    //Arguments may be attached or separate, even if they begin with a hyphen.
+    val results = parser.parse("-ab", "-ofile", "-c", "1", "-c-2", "-A", "x", "-b", "--", "y")
+    results.success should be (true)
+    results.single[Boolean]("all") should be (Some(true))
+    results.single[Boolean]("brief") should be (Some(true))
+    results.single[Boolean]("ALL") should be (Some(true))
+    results.first[String]("output") should be (Some("file"))
+    results[Int]("count") should be (Some(List(1, -2)))
+    results.operands.toList should be (List("x", "-b", "--", "y"))
+
+    //Long options aren't recognized and neither are short names that only differ by case.
+    val unrecognized = parser.parse("--all", "-aB", "-o")
+    unrecognized.success should be (false)
+    unrecognized.anyInvalidOptions should be (true)
+    unrecognized.single[Boolean]("all") should be (Some(true))
+    unrecognized.first[String]("output") should be (None)
+
+    parser.parse("--", "-a").operands.toList should be (List("-a"))
+    parser.parse("-", "-a").operands.toList should be (List("-", "-a"))
+
+    evaluating { CommandLineOptions(CommandLineOptions.POSIX_PARSER_CONFIGURATION)(CommandLineFlag named "all").compile() } should produce [IllegalArgumentException]
+    evaluating { CommandLineOptions(CommandLineOptions.POSIX_PARSER_CONFIGURATION)(CommandLineOption named "values" shortName "v" arguments (1, 2) parseAs IntegerOption()).compile() } should produce [IllegalArgumentException]
+
+    val git = CommandParser(parser)(Subcommand("commit")(parser))
+    git.parse("-a", "-o", "commit", "commit", "-b").commandResults.get.single[Boolean]("brief") should be (Some(true))
+
+    //Specifications sharing the strategy each keep their own table.
+    val other = CommandLineOptions(CommandLineOptions.POSIX_PARSER_CONFIGURATION)(CommandLineFlag named "zip" shortName "z")
+    val table = parser.compile().options.shortNameTable
+    other.parse("-z").single[Boolean]("zip") should be (Some(true))
+    parser.parse("-a").single[Boolean]("all") should be (Some(true))
+    assert(parser.compile().options.shortNameTable eq table)
+  }
+
+  test("long option abbreviations") {
+    val parser = CommandLineOptions(
+      CommandLineFlag named "verbose",
+      CommandLineFlag named "version",
+      CommandLineOption named "size" longName "size" longName "length" parseAs IntegerOption(),
+      CommandLineOption named "sizes" arguments (1, UNBOUNDED) parseAs IntegerOption()
+    )
+
+    val results = parser.parse("--VERB", "--len=3", "--sizes=1", "2")
+    results.success should be (true)
+    results.single[Boolean]("verbose") should be (Some(true))
+    results.first[Int]("size") should be (Some(3))
+    results.first[Seq[Int]]("sizes") should be (Some(List(1, 2)))
+
+    //An exact name wins over longer names it's a prefix of.
+    parser.parse("--size=4").first[Int]("size") should be (Some(4))
+
+    val ambiguous = parser.parse("--ver")
+    ambiguous.success should be (false)
+    ambiguous.anyInvalidOptions should be (true)
+    ambiguous.ambiguousOptions should be (Map("ver" -> List("verbose", "version")))
+    parser.parse("--siz=1").ambiguousOptions should be (Map("siz" -> List("size", "sizes")))
+
+    val misspelled = parser.parse("--verbsoe")
+    misspelled.success should be (false)
+    misspelled.unrecognizedOptions should be (Map("verbsoe" -> List("verbose")))
+    parser.parse("--lenght=1").unrecognizedOptions should be (Map("lenght" -> List("length")))
+    parser.parse("--xyz").unrecognizedOptions should be (Map("xyz" -> List()))
+
+    val trie = parser.compile().options.longNameTrie
+    trie.idOfPrefix("vers") should be (parser.compile().options.idOfOption("version"))
+    trie.idOfPrefix("v") should be (CommandLineOptionIndex.AMBIGUOUS)
+    trie.idOfPrefix("verbosely") should be (CommandLineOptionIndex.NOT_FOUND)
+    trie.suggestions("sise", 1) should be (List("size"))
+    trie.suggestions("sise", 2) should be (List("size", "sizes"))
+
+    val git = CommandParser(parser)(Subcommand("commit")(parser))
+    git.parse("--verb", "--len=1", "commit", "--vers").commandResults.get.single[Boolean]("version") should be (Some(true))
+  }
+
+  test("property options") {
+    val gnu = new strategy.GNUParserStrategy()
+    val options = Seq(
+      CommandLineOption named "define" shortName "D" arity UNBOUNDED parseAs StringOption() accumulateWith PropertyMapAccumulator(),
+      CommandLineOption named "first" shortName "F" arity UNBOUNDED parseAs StringOption() accumulateWith PropertyMapAccumulator(DuplicatePolicy.FirstWins),
+      CommandLineOption named "collect" shortName "C" arity UNBOUNDED parseAs StringOption() accumulateWith PropertyMapAccumulator(DuplicatePolicy.Collect),
+      CommandLineOption named "settings" arguments (1, UNBOUNDED) parseAs StringOption() accumulateWith StringList()
+    )
+    val parser = CommandLineOptions.applySeq(new ParserConfiguration(gnu))(options)
+
+    val results = parser.parse("-Da=1", "-Db=x=y", "--define=a=2", "-Dc=3", "-Dflag", "-D=ignored", "-Fa=1", "-Fa=2", "-Ca=1", "-Cb=2", "-Ca=3", "--settings=a=1", "a=2", "b")
+    results.success should be (true)
+    val defined = results.properties("define").get
+    defined.keys should be (Seq("a", "b", "c", "flag"))
+    defined("a") should be ("2")
+    defined("b") should be ("x=y")
+    defined("flag") should be ("")
+    defined.get("ignored") should be (None)
+    defined.toMap should be (Map("a" -> "2", "b" -> "x=y", "c" -> "3", "flag" -> ""))
+    results.optionResults("define") should be (List(defined))
+    results.properties("first").get.get("a") should be (Some("1"))
+    val collected = results.properties("collect").get
+    collected("a") should be ("3")
+    collected.all("a") should be (List("1", "3"))
+    collected.all("b") should be (List("2"))
+    results.properties("settings").get.toMap should be (Map("a" -> "2", "b" -> ""))
+    parser.parse("-Fa=1").properties("define") should be (None)
+
+    //Plenty of keys, so the table grows.
+    val many = parser.parseArguments((0 until 1000).map(i => "-Dkey" + i + "=" + i)).properties("define").get
+    many.size should be (1000)
+    many("key999") should be ("999")
+
+    //Resumed states each keep their own map.
+    val state = gnu.begin(parser.compile().options).feed("-Da=1")
+    val replaced = state.feed("-Da=2").results.results("define").get.last.asInstanceOf[PropertyMap]
+    val added = state.feed("-Db=3").results.results("define").get.last.asInstanceOf[PropertyMap]
+    replaced.toMap should be (Map("a" -> "2"))
+    added.toMap should be (Map("a" -> "1", "b" -> "3"))
+    state.results.results("define").get.last.asInstanceOf[PropertyMap].toMap should be (Map("a" -> "1"))
+
+    val posix = CommandLineOptions.applySeq(CommandLineOptions.POSIX_PARSER_CONFIGURATION)(options.take(3))
+    posix.parse("-D", "a=1", "-Db=2", "-Da=3").properties("define").get.toMap should be (Map("a" -> "3", "b" -> "2"))
+
+    //Bounded arity would turn occurrences away, so it's refused.
+    evaluating { CommandLineOption named "define" shortName "D" parseAs StringOption() accumulateWith PropertyMapAccumulator() } should produce [IllegalArgumentException]
+  }
+
   test("translate") {
     //http://stackoverflow.com/questions/1025181/hidden-features-of-scala
 